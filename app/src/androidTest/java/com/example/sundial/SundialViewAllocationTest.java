@@ -0,0 +1,58 @@
+package com.example.sundial;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class SundialViewAllocationTest {
+
+    private static final int SIZE = 1080;
+    private static final int FRAMES = 120;
+
+    @Test
+    public void onDraw_allocatesNothingOnceWarmedUp() {
+
+        final int[] allocations = new int[1];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            SundialView view = new SundialView(InstrumentationRegistry.getInstrumentation().getTargetContext(), null);
+            view.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, SIZE, SIZE);
+
+            Bitmap target = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(target);
+
+            // Warm-up builds the dial layer and the shadow path's native storage
+            for (int frame = 0; frame < FRAMES; frame++) {
+                view.updateShadow(300, 20, 180 + frame);
+                view.draw(canvas);
+            }
+
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+            for (int frame = 0; frame < FRAMES; frame++) {
+                view.updateShadow(300 - frame, 10 + frame % 20, 200 + frame);
+                view.draw(canvas);
+            }
+            Debug.stopAllocCounting();
+            allocations[0] = Debug.getThreadAllocCount();
+
+            target.recycle();
+        });
+
+        assertEquals("Objects allocated over " + FRAMES + " frames", 0, allocations[0]);
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.example.sundial;
+
+import android.os.Trace;
+
+/*
+Forwards Instrumentation sections to android.os.Trace so the pipeline stages
+show up as named slices in Perfetto / systrace captures.
+ */
+class AndroidTracer implements Instrumentation.Tracer {
+
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.example.sundial;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/*
+Maps the precomputed solar ephemeris that the build generates into the APK's
+assets.  The asset is stored uncompressed (see app/build.gradle), so it can be
+mapped straight out of the APK: opening it is a header check, and the first
+shadow after a cold start needs no full solar calculation.
+ */
+final class EphemerisAsset {
+
+    static final String FILE_NAME = "solar_ephemeris.eph";
+
+    private static final String TAG = "EphemerisAsset";
+
+    private EphemerisAsset() {
+    }
+
+    // null if the asset is missing or unreadable; callers then fall back to the full calculation
+    static ChebyshevEphemeris open(Context context) {
+
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(FILE_NAME);
+             FileInputStream input = descriptor.createInputStream()) {
+            return EphemerisFile.map(input.getChannel(), descriptor.getStartOffset(), descriptor.getLength());
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(TAG, "Precomputed ephemeris unavailable", e);
+            return null;
+        }
+
+    }
+
+}
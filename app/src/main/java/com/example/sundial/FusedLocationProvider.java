@@ -0,0 +1,77 @@
+package com.example.sundial;
+
+import android.location.Location;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+
+/*
+LocationProvider backed by Play Services' FusedLocationProviderClient.  The
+priority is fixed at construction; a sundial only needs city-level accuracy,
+so callers normally pass Priority.PRIORITY_BALANCED_POWER_ACCURACY or
+PRIORITY_LOW_POWER.  The caller must hold the location permission.
+ */
+class FusedLocationProvider implements LocationProvider {
+
+    private final FusedLocationProviderClient client;
+    private final int priority;
+    private LocationCallback locationCallback;
+
+    FusedLocationProvider(FusedLocationProviderClient client, int priority) {
+
+        this.client = client;
+        this.priority = priority;
+
+    }
+
+    @Override
+    @SuppressWarnings("MissingPermission") // checked by LocationService before starting
+    public void requestLastLocation(Listener listener) {
+
+        client.getLastLocation().addOnSuccessListener(location -> {
+            if (location != null) {
+                listener.onLocation(location.getLatitude(), location.getLongitude());
+            }
+        });
+
+    }
+
+    @Override
+    @SuppressWarnings("MissingPermission") // checked by LocationService before starting
+    public void requestUpdates(long intervalMillis, float minDistanceMeters, Listener listener) {
+
+        removeUpdates();
+        locationCallback = new LocationCallback() {
+            @Override
+            public void onLocationResult(@NonNull LocationResult locationResult) {
+                Location location = locationResult.getLastLocation();
+                if (location != null) {
+                    listener.onLocation(location.getLatitude(), location.getLongitude());
+                }
+            }
+        };
+
+        LocationRequest locationRequest = new LocationRequest.Builder(priority, intervalMillis)
+                .setMinUpdateDistanceMeters(minDistanceMeters)
+                .build();
+
+        // A null looper delivers on the calling thread's looper (the main thread)
+        client.requestLocationUpdates(locationRequest, locationCallback, null);
+
+    }
+
+    @Override
+    public void removeUpdates() {
+
+        if (locationCallback != null) {
+            client.removeLocationUpdates(locationCallback);
+            locationCallback = null;
+        }
+
+    }
+
+}
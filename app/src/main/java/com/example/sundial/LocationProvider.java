@@ -0,0 +1,22 @@
+package com.example.sundial;
+
+/*
+Source of location fixes for LocationStrategy.  Fixes are plain latitude and
+longitude in degrees, so the strategy can be unit-tested with a fake provider
+instead of Play Services.
+ */
+public interface LocationProvider {
+
+    interface Listener {
+        void onLocation(double latitude, double longitude);
+    }
+
+    // Delivers the cached fix once if the platform has one; delivers nothing otherwise
+    void requestLastLocation(Listener listener);
+
+    // Ongoing fixes no more often than intervalMillis and only after moving minDistanceMeters
+    void requestUpdates(long intervalMillis, float minDistanceMeters, Listener listener);
+
+    void removeUpdates();
+
+}
@@ -0,0 +1,91 @@
+package com.example.sundial;
+
+/*
+Decides which location fixes are worth acting on.  The sun's position changes
+by about 0.01 degrees per kilometre, so a sundial needs a fix once and then only
+when the phone has genuinely moved: it starts from the provider's cached fix,
+asks for slow, distance-filtered updates, and drops any fix closer than
+minMoveMeters to the last one it passed on.
+ */
+public class LocationStrategy implements LocationProvider.Listener {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 5 * 60000L;
+    public static final float DEFAULT_MIN_UPDATE_DISTANCE_METERS = 500;
+    public static final double DEFAULT_MIN_MOVE_METERS = 1000;
+
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    private final LocationProvider provider;
+    private final long intervalMillis;
+    private final float minUpdateDistanceMeters;
+    private final double minMoveMeters;
+
+    private LocationProvider.Listener listener;
+    private boolean hasFix;
+    private double lastLatitude;
+    private double lastLongitude;
+
+    public LocationStrategy(LocationProvider provider) {
+
+        this(provider, DEFAULT_INTERVAL_MILLIS, DEFAULT_MIN_UPDATE_DISTANCE_METERS, DEFAULT_MIN_MOVE_METERS);
+
+    }
+
+    public LocationStrategy(LocationProvider provider, long intervalMillis, float minUpdateDistanceMeters,
+                            double minMoveMeters) {
+
+        if (intervalMillis <= 0 || minUpdateDistanceMeters < 0 || minMoveMeters < 0) {
+            throw new IllegalArgumentException("Interval must be positive and distances non-negative");
+        }
+        this.provider = provider;
+        this.intervalMillis = intervalMillis;
+        this.minUpdateDistanceMeters = minUpdateDistanceMeters;
+        this.minMoveMeters = minMoveMeters;
+
+    }
+
+    // The listener sees the first fix and then only fixes that moved at least minMoveMeters from the previous one
+    public void start(LocationProvider.Listener listener) {
+
+        this.listener = listener;
+        provider.requestLastLocation(this);
+        provider.requestUpdates(intervalMillis, minUpdateDistanceMeters, this);
+
+    }
+
+    public void stop() {
+
+        provider.removeUpdates();
+        listener = null;
+
+    }
+
+    @Override
+    public void onLocation(double latitude, double longitude) {
+
+        if (listener == null) return; // a late cached fix after stop()
+
+        if (hasFix && distanceMeters(lastLatitude, lastLongitude, latitude, longitude) < minMoveMeters) {
+            return;
+        }
+        hasFix = true;
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+        listener.onLocation(latitude, longitude);
+
+    }
+
+    // Great-circle distance by the haversine formula
+    static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double sinHalfDeltaPhi = Math.sin((phi2 - phi1) / 2);
+        double sinHalfDeltaLambda = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+
+        double a = sinHalfDeltaPhi * sinHalfDeltaPhi + Math.cos(phi1) * Math.cos(phi2) * sinHalfDeltaLambda * sinHalfDeltaLambda;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+
+    }
+
+}
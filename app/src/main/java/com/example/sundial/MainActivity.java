@@ -1,7 +1,6 @@
 package com.example.sundial;
 
 import android.content.pm.PackageManager;
-import android.location.Location;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -9,9 +8,11 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.util.Log;
-import com.google.android.gms.tasks.OnSuccessListener;
+import android.widget.ToggleButton;
 
-public class MainActivity extends AppCompatActivity implements SolarCalculator.SolarCalculatorCallback {
+import java.util.TimeZone;
+
+public class MainActivity extends AppCompatActivity {
 
     private LocationService locationService;
     private double latitude;
@@ -21,28 +22,104 @@ public class MainActivity extends AppCompatActivity implements SolarCalculator.S
     private ShadowManager shadowManager;
     private SundialView sundialView;
     private ShadowAnimationManager shadowAnimationManager;
+    private ShadowOrientationStage shadowOrientationStage;
+    private ShadowRecomputeScheduler recomputeScheduler;
+    private final SolarComputeExecutor solarComputeExecutor = new SolarComputeExecutor();
+
+    // The view (and, in debug builds, the log) share one stream of states; it ticks only while they are subscribed
+    private SolarStatePublisher solarStatePublisher;
+    private ViewSubscriber viewSubscriber;
+    private LogSubscriber logSubscriber;
 
     private double solarAltitude = 0.0;
 
+    // Which body casts the shadow; toggled by the Sun/Moon button
+    private volatile CelestialBody body = CelestialBody.SUN;
+
+    // The sun ticks when the shadow will next visibly move (the recompute scheduler stretches the
+    // one-second tick); the scheduler models the sun only, so the moon ticks on a fixed period instead
+    private static final long SUN_TICK_MILLIS = ShadowRecomputeScheduler.MIN_DELAY_MILLIS;
+    private static final long MOON_TICK_MILLIS = 60000L;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private boolean hasLocationFix = false;
+    private static final double RECOMPUTE_THRESHOLD_PIXELS = 1.0;
+
+    // While scrubbing, the sun is stepped a minute at a time from the last scrubbed instant rather than
+    // recomputed from scratch.  A step costs an asin and an atan2 and a restart about a dozen trig calls,
+    // so only short forward drags are walked; longer jumps (or backwards ones) restart the stepper
+    private static final long SCRUB_STEP_MILLIS = 60000L;
+    private static final long SCRUB_CATCH_UP_MILLIS = 5 * SCRUB_STEP_MILLIS;
+    private static final long SCRUB_ANIMATION_MS = 50;
+    private SolarStepper scrubStepper;
+    private long scrubBaseMillis;
+    private final double[] scrubAltitude = new double[1];
+    private final double[] scrubAzimuth = new double[1];
+
+    // Five-minute resolution for the day's shadow path
+    private static final int TRAJECTORY_SAMPLES = 289;
+    private static final long MILLIS_PER_DAY = 86400000L;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // Must run before anything touches Instrumentation, which reads the property once
+        if (BuildConfig.DEBUG) {
+            System.setProperty("sundial.instrumentation.enabled", "true");
+        }
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        if (Instrumentation.ENABLED) {
+            Instrumentation.setTracer(new AndroidTracer());
+        }
+
+        // Mapping the shipped ephemeris is a header check, so the first fix is served without a full calculation
+        solarComputeExecutor.setEphemeris(EphemerisAsset.open(this));
+
         // Initialize services:
         locationService = new LocationService(this);
-        orientationManager = new OrientationManager(this);
+        // Opt in to the platform's fused rotation vector, smoothed: steadier tilt than the raw sensor pair
+        orientationManager = new OrientationManager(this, OrientationManager.Source.ROTATION_VECTOR,
+                OrientationManager.DEFAULT_FILTER_ALPHA);
         orientationManager.startListening();
 
         // Get the SundialView instance
         sundialView = findViewById(R.id.sundial_view);
 
-        // Trigger onDraw to initialize variables in SundialView
+        sundialView.setOnScrubListener(new SundialView.OnScrubListener() {
+            @Override
+            public void onScrub(long offsetMillis) {
+                scrubTo(offsetMillis);
+            }
+
+            @Override
+            public void onScrubEnd() {
+                if (scrubStepper == null) return;
+                scrubStepper = null;
+                displaySunPosition(); // back to now
+            }
+        });
+
+        ToggleButton moonModeToggle = findViewById(R.id.moon_mode_toggle);
+        moonModeToggle.setOnCheckedChangeListener((button, isChecked) -> {
+            body = isChecked ? CelestialBody.MOON : CelestialBody.SUN;
+            if (isChecked) {
+                sundialView.setDayTrajectory(null); // the drawn path is the sun's
+            } else {
+                sundialView.setMoonMode(false, 1f);
+            }
+            if (solarStatePublisher != null) {
+                solarStatePublisher.setTickMillis(tickMillisFor(body));
+                solarStatePublisher.setBody(body);
+            }
+        });
+
+        // Runs after the first layout, when SundialView's radii have been set in onSizeChanged
         sundialView.post(() -> {
             // Force a redraw to ensure onDraw is called
             sundialView.invalidate();
 
-            // Initialize ShadowManager after onDraw has been called
+            // Initialize ShadowManager from the laid-out dial
             shadowManager = new ShadowManager(
                     sundialView.getOutermostRadius() - 20,  // maxLength - shadow should reach the middle radius
                     sundialView.getOutermostRadius() - 100, // minLength - shadow's minimum length
@@ -50,10 +127,18 @@ public class MainActivity extends AppCompatActivity implements SolarCalculator.S
                     10   // minWidth
             );
 
-            Log.d("ShadowDebug", "Initializing ShadowManager with maxLength=" +
-                    sundialView.getMiddleRadius() + ", minLength=" + (sundialView.getMiddleRadius() - 40));
-
             shadowAnimationManager = new ShadowAnimationManager(sundialView, shadowManager);
+            shadowOrientationStage = new ShadowOrientationStage(orientationManager, shadowManager, shadowAnimationManager);
+            shadowOrientationStage.start();
+            recomputeScheduler = new ShadowRecomputeScheduler(shadowManager, RECOMPUTE_THRESHOLD_PIXELS);
+
+            solarStatePublisher = new SolarStatePublisher(solarComputeExecutor, shadowManager, tickMillisFor(body));
+            solarStatePublisher.setRecomputeScheduler(recomputeScheduler);
+            solarStatePublisher.setBody(body);
+            if (hasLocationFix) {
+                displaySunPosition();
+            }
+            subscribeConsumers();
         });
 
         if (locationService.checkLocationPermission()) {
@@ -65,24 +150,16 @@ public class MainActivity extends AppCompatActivity implements SolarCalculator.S
     }
 
     private void requestUserLocation() {
-        locationService.getLocationUpdates(new OnSuccessListener<Location>() {
-            @Override
-            public void onSuccess(Location location) {
-                if (location != null) {
-                    latitude = location.getLatitude();
-                    longitude = location.getLongitude();
-
-                    Log.d("Lat/Long", "Latitude/Longitude = (" + latitude + ", " + longitude +
-                            ")");
+        locationService.getLocationUpdates((newLatitude, newLongitude) -> {
+            latitude = newLatitude;
+            longitude = newLongitude;
 
-                    // Directly call displaySunPosition without delay (temporarily)
-                    Log.d("Position Calculation" , "Calculating the sun's position in the sky: ");
-                    displaySunPosition();
+            Log.d("Lat/Long", "Latitude/Longitude = (" + latitude + ", " + longitude +
+                    ")");
 
-                } else {
-                    Log.d("Location unavailable", "Location unavailable!");
-                }
-            }
+            // Only the first fix and real moves get here; everything else waits for the next tick
+            hasLocationFix = true;
+            displaySunPosition();
         });
     }
 
@@ -98,19 +175,83 @@ public class MainActivity extends AppCompatActivity implements SolarCalculator.S
         }
     }
 
-    // Original method now calls the new version
+    // Computes the position of the current body (the sun, or the moon in Moondial mode) now, for the latest fix
     private void displaySunPosition() {
 
-        long nowMillis = System.currentTimeMillis();
+        // Bursts of location callbacks are coalesced by the compute executor, so only the latest fix is computed
+        if (solarStatePublisher != null) {
+            solarStatePublisher.setObserver(latitude, longitude);
+        }
+
+    }
+
+    private static long tickMillisFor(CelestialBody body) {
+
+        return body == CelestialBody.MOON ? MOON_TICK_MILLIS : SUN_TICK_MILLIS;
 
-        SolarCalculator solarCalculator = new SolarCalculator(latitude, longitude, nowMillis);
-        solarCalculator.calculateInBackground(this);
+    }
+
+    private void subscribeConsumers() {
+
+        if (solarStatePublisher == null || viewSubscriber != null) return;
+        viewSubscriber = new ViewSubscriber();
+        solarStatePublisher.subscribe(viewSubscriber);
+
+        // Per-tick logging is debug-only; release builds strip it with the rest of the instrumentation
+        if (Instrumentation.ENABLED) {
+            logSubscriber = new LogSubscriber();
+            solarStatePublisher.subscribe(logSubscriber);
+        }
+
+    }
+
+    // Once the last consumer is gone the stream stops ticking
+    private void unsubscribeConsumers() {
+
+        if (viewSubscriber == null) return;
+        viewSubscriber.subscription.cancel();
+        viewSubscriber = null;
+        if (logSubscriber != null) {
+            logSubscriber.subscription.cancel();
+        }
+        logSubscriber = null;
+
+    }
+
+    // The stepper models the sun only, so the moon is not scrubbed
+    private void scrubTo(long offsetMillis) {
+
+        if (!hasLocationFix || shadowOrientationStage == null || body != CelestialBody.SUN) return;
+
+        if (scrubStepper == null) {
+            // Live states are ignored until the scrub ends
+            scrubBaseMillis = System.currentTimeMillis();
+            scrubStepper = new SolarStepper(latitude, longitude, scrubBaseMillis, SCRUB_STEP_MILLIS);
+        }
+
+        long target = scrubBaseMillis + Math.floorDiv(offsetMillis, SCRUB_STEP_MILLIS) * SCRUB_STEP_MILLIS;
+        long ahead = target - scrubStepper.getTimeInMillis();
+        if (ahead < -SCRUB_STEP_MILLIS || ahead > SCRUB_CATCH_UP_MILLIS) {
+            scrubStepper.reset(target);
+        } else if (ahead == -SCRUB_STEP_MILLIS) {
+            return; // still showing the target
+        }
+        while (scrubStepper.getTimeInMillis() <= target) {
+            scrubStepper.next(scrubAltitude, scrubAzimuth, 0);
+        }
+
+        solarAltitude = scrubAltitude[0];
+        shadowOrientationStage.setSolarPosition(scrubAltitude[0], scrubAzimuth[0], SCRUB_ANIMATION_MS);
 
     }
 
     protected void onDestroy() {
         super.onDestroy();
         orientationManager.stopListening();
+        if (solarStatePublisher != null) {
+            solarStatePublisher.shutdown();
+        }
+        solarComputeExecutor.shutdown();
     }
 
     @Override
@@ -118,6 +259,17 @@ public class MainActivity extends AppCompatActivity implements SolarCalculator.S
         super.onPause();
         locationService.stopUpdates();
         orientationManager.stopListening();
+        unsubscribeConsumers();
+        solarComputeExecutor.shutdown();
+        scrubStepper = null;
+        if (shadowOrientationStage != null) {
+            shadowOrientationStage.stop();
+            shadowAnimationManager.cancel();
+        }
+
+        if (Instrumentation.ENABLED) {
+            Log.i("Instrumentation", "Frame-time breakdown:\n" + Instrumentation.snapshot());
+        }
     }
 
     @Override
@@ -125,6 +277,11 @@ public class MainActivity extends AppCompatActivity implements SolarCalculator.S
         super.onResume();
 
         orientationManager.startListening();
+        if (shadowOrientationStage != null) {
+            shadowOrientationStage.start();
+        }
+        // Resubscribing ticks straight away, catching up on whatever changed while paused
+        subscribeConsumers();
 
         if (locationService.checkLocationPermission()) {
             requestUserLocation();
@@ -134,17 +291,84 @@ public class MainActivity extends AppCompatActivity implements SolarCalculator.S
         }
     }
 
-    @Override
-    public void onCalculationComplete(double altitude, double azimuth) {
-        solarAltitude = altitude;
+    // Shows each state on the main thread and asks for the next only once it is shown, so states
+    // produced while the main thread is busy are conflated rather than queued
+    private final class ViewSubscriber implements SolarStateStream.Subscriber<SolarState> {
 
-        Log.d("SolarCalculator", "Altitude: " + altitude + ", " + "Azimuth: " + azimuth);
+        SolarStateStream.Subscription subscription;
 
-        new Handler(Looper.getMainLooper()).post(() -> {
-            double phonePitch = orientationManager.getPitch();
-            double phoneRoll = orientationManager.getRoll();
-            double shadowDirection = shadowManager.calculateShadowDirection(azimuth, phoneRoll);
-            shadowAnimationManager.startAnimation(solarAltitude, shadowDirection, phonePitch);
-        });
+        @Override
+        public void onSubscribe(SolarStateStream.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(SolarState state) {
+            mainHandler.post(() -> {
+                showState(state);
+                subscription.request(1);
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            Log.e("SolarState", "View stream failed", throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static final class LogSubscriber implements SolarStateStream.Subscriber<SolarState> {
+
+        SolarStateStream.Subscription subscription;
+
+        @Override
+        public void onSubscribe(SolarStateStream.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(SolarState state) {
+            Log.d("SolarState", state.toString());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            Log.e("SolarState", "Log stream failed", throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private void showState(SolarState state) {
+
+        // A state for the body we just switched away from is replaced by the tick the toggle started
+        if (state.getBody() != body || scrubStepper != null) return;
+
+        // Orientation changes re-evaluate the shadow from this cached position
+        solarAltitude = state.getAltitude();
+        shadowOrientationStage.setSolarPosition(state.getAltitude(), state.getAzimuth());
+
+        if (state.getBody() == CelestialBody.MOON) {
+            sundialView.setMoonMode(true, (float) state.getIlluminatedFraction());
+            return;
+        }
+
+        // Cached per place and day, so this only computes on the first fix of the day
+        sundialView.setDayTrajectory(shadowManager.calculateDayTrajectory(
+                latitude, longitude, localDayStart(state.getTimeInMillis()), TRAJECTORY_SAMPLES));
+
+    }
+
+    // Midnight of the current local calendar day, in epoch millis
+    private static long localDayStart(long nowMillis) {
+        long offset = TimeZone.getDefault().getOffset(nowMillis);
+        return nowMillis - Math.floorMod(nowMillis + offset, MILLIS_PER_DAY);
     }
-}
\ No newline at end of file
+}
@@ -6,29 +6,82 @@ import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 
+/*
+Tracks the phone's pitch and roll.  The rotation vector sensors are already
+fused and filtered by the platform, so they need one sensor and one matrix per
+event; accelerometer + magnetometer is kept as the fallback for devices without
+them.  Sensor values are copied into preallocated buffers, smoothed with a
+low-pass filter, and published as an immutable OrientationSnapshot.
+ */
 public class OrientationManager implements SensorEventListener {
 
+    // Called with every published snapshot, on the thread sensor events arrive on (the main thread)
+    public interface OnOrientationChangedListener {
+        void onOrientationChanged(OrientationSnapshot snapshot);
+    }
+
+    public enum Source {
+        ACCELEROMETER_MAGNETOMETER,
+        ROTATION_VECTOR,
+        GAME_ROTATION_VECTOR    // no magnetometer: immune to magnetic interference, azimuth drifts
+    }
+
+    // Suggested weight of each new reading for callers that opt in to smoothing; 1 disables it
+    public static final float DEFAULT_FILTER_ALPHA = 0.25f;
+
     private static final String TAG = "OrientationManager";
     private final SensorManager sensorManager;
-    private final Sensor accelerometer;
-    private final Sensor magnetometer;
+    private final Source source;
+    private final Sensor primarySensor;
+    private final Sensor magnetometer;  // only for ACCELEROMETER_MAGNETOMETER
 
-    private float[] lastAccelerometerValues;
-    private float[] lastMagnetometerValues;
-    private float[] rotationMatrix = new float[9];
-    private float[] orientationAngles = new float[3];
+    // Written only on the sensor thread
+    private final float[] accelerometerValues = new float[3];
+    private final float[] magnetometerValues = new float[3];
+    private final float[] rotationVector = new float[4];
+    private final float[] rotationMatrix = new float[9];
+    private final float[] orientationAngles = new float[3];
+    private boolean hasAccelerometer;
+    private boolean hasMagnetometer;
+    private boolean hasReading;
+    private double filteredPitch;
+    private double filteredRoll;
+    private double filteredAzimuth;
 
-    private double pitch = 0.0;
-    private double roll = 0.0;
+    private volatile float filterAlpha;
+    private volatile OrientationSnapshot snapshot = OrientationSnapshot.LEVEL;
+    private OnOrientationChangedListener listener;
 
+    // The original accelerometer + magnetometer readings, unfiltered
     public OrientationManager(Context context) {
+        this(context, Source.ACCELEROMETER_MAGNETOMETER, 1f);
+    }
+
+    // Falls back to accelerometer + magnetometer if the requested rotation vector sensor is missing
+    public OrientationManager(Context context, Source preferredSource, float filterAlpha) {
         sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
-        accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
-        magnetometer = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+        setFilterAlpha(filterAlpha);
+
+        Sensor rotationSensor = null;
+        if (preferredSource == Source.ROTATION_VECTOR) {
+            rotationSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        } else if (preferredSource == Source.GAME_ROTATION_VECTOR) {
+            rotationSensor = sensorManager.getDefaultSensor(Sensor.TYPE_GAME_ROTATION_VECTOR);
+        }
+
+        if (rotationSensor != null) {
+            source = preferredSource;
+            primarySensor = rotationSensor;
+            magnetometer = null;
+        } else {
+            source = Source.ACCELEROMETER_MAGNETOMETER;
+            primarySensor = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+            magnetometer = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+        }
     }
 
     public void startListening() {
-        if (accelerometer != null) sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_UI);
+        if (primarySensor != null) sensorManager.registerListener(this, primarySensor, SensorManager.SENSOR_DELAY_UI);
         if (magnetometer != null) sensorManager.registerListener(this, magnetometer, SensorManager.SENSOR_DELAY_UI);
     }
 
@@ -36,25 +89,71 @@ public class OrientationManager implements SensorEventListener {
         sensorManager.unregisterListener(this);
     }
 
+    public Source getSource() {
+        return source;
+    }
+
+    public void setOnOrientationChangedListener(OnOrientationChangedListener listener) {
+        this.listener = listener;
+    }
+
+    public void setFilterAlpha(float alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("filter alpha must be in (0, 1]: " + alpha);
+        }
+        filterAlpha = alpha;
+    }
+
     @Override
     public void onSensorChanged(SensorEvent event) {
-        if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
-            lastAccelerometerValues = event.values.clone();
-        } else if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
-            lastMagnetometerValues = event.values.clone();
+        int type = event.sensor.getType();
+        if (type == Sensor.TYPE_ROTATION_VECTOR || type == Sensor.TYPE_GAME_ROTATION_VECTOR) {
+            // Some devices report a fifth (accuracy) value that getRotationMatrixFromVector rejects
+            System.arraycopy(event.values, 0, rotationVector, 0, Math.min(event.values.length, rotationVector.length));
+            SensorManager.getRotationMatrixFromVector(rotationMatrix, rotationVector);
+        } else {
+            if (type == Sensor.TYPE_ACCELEROMETER) {
+                System.arraycopy(event.values, 0, accelerometerValues, 0, 3);
+                hasAccelerometer = true;
+            } else if (type == Sensor.TYPE_MAGNETIC_FIELD) {
+                System.arraycopy(event.values, 0, magnetometerValues, 0, 3);
+                hasMagnetometer = true;
+            }
+            if (!hasAccelerometer || !hasMagnetometer
+                    || !SensorManager.getRotationMatrix(rotationMatrix, null, accelerometerValues, magnetometerValues)) {
+                return;
+            }
         }
 
-        if (lastAccelerometerValues != null && lastMagnetometerValues != null) {
-            if (SensorManager.getRotationMatrix(rotationMatrix, null, lastAccelerometerValues, lastMagnetometerValues)) {
-                SensorManager.getOrientation(rotationMatrix, orientationAngles);
-
-                // Convert from radians to degrees
-                pitch = Math.toDegrees(orientationAngles[1]); // Pitch is the second angle
-                roll = Math.toDegrees(orientationAngles[2]);  // Roll is the third angle
+        SensorManager.getOrientation(rotationMatrix, orientationAngles);
+        publish(Math.toDegrees(orientationAngles[1]),  // Pitch is the second angle
+                Math.toDegrees(orientationAngles[2]),  // Roll is the third angle
+                Math.toDegrees(orientationAngles[0]),
+                event.timestamp);
+    }
 
-                //Log.d(TAG, "Pitch: " + pitch + ", Roll: " + roll);
-            }
+    private void publish(double pitch, double roll, double azimuth, long timestampNanos) {
+        if (hasReading) {
+            float alpha = filterAlpha;
+            filteredPitch += alpha * (pitch - filteredPitch);
+            filteredRoll = wrap180(filteredRoll + alpha * wrap180(roll - filteredRoll));
+            filteredAzimuth = wrap180(filteredAzimuth + alpha * wrap180(azimuth - filteredAzimuth));
+        } else {
+            filteredPitch = pitch;
+            filteredRoll = roll;
+            filteredAzimuth = azimuth;
+            hasReading = true;
         }
+        OrientationSnapshot published = new OrientationSnapshot(filteredPitch, filteredRoll, filteredAzimuth, timestampNanos);
+        snapshot = published;
+        if (listener != null) listener.onOrientationChanged(published);
+    }
+
+    // Roll and azimuth wrap at +-180, so they are filtered along the short way round
+    private static double wrap180(double degrees) {
+        if (degrees > 180) return degrees - 360;
+        if (degrees <= -180) return degrees + 360;
+        return degrees;
     }
 
     @Override
@@ -62,11 +161,16 @@ public class OrientationManager implements SensorEventListener {
         // I don't need this
     }
 
+    // Pitch and roll from the same reading; prefer this over getPitch() + getRoll()
+    public OrientationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public double getPitch() {
-        return pitch;
+        return snapshot.getPitch();
     }
 
     public double getRoll() {
-        return roll;
+        return snapshot.getRoll();
     }
 }
@@ -0,0 +1,50 @@
+package com.example.sundial;
+
+/*
+One consistent reading of the phone's orientation.  Instances are immutable and
+published through a volatile field, so a reader always sees a pitch and roll
+taken from the same sensor event.
+ */
+public final class OrientationSnapshot {
+
+    static final OrientationSnapshot LEVEL = new OrientationSnapshot(0, 0, 0, 0);
+
+    private final double pitch;         // degrees, -90 to 90
+    private final double roll;          // degrees, -180 to 180
+    private final double azimuth;       // degrees, -180 to 180 (0 = magnetic North; arbitrary for the game rotation vector)
+    private final long timestampNanos;  // SensorEvent.timestamp of the reading
+
+    OrientationSnapshot(double pitch, double roll, double azimuth, long timestampNanos) {
+
+        this.pitch = pitch;
+        this.roll = roll;
+        this.azimuth = azimuth;
+        this.timestampNanos = timestampNanos;
+
+    }
+
+    public double getPitch() {
+
+        return pitch;
+
+    }
+
+    public double getRoll() {
+
+        return roll;
+
+    }
+
+    public double getAzimuth() {
+
+        return azimuth;
+
+    }
+
+    public long getTimestampNanos() {
+
+        return timestampNanos;
+
+    }
+
+}
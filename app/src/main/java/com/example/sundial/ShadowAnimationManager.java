@@ -1,18 +1,35 @@
 package com.example.sundial;
 
-import android.animation.ValueAnimator;
-import android.util.Log;
-import android.view.animation.LinearInterpolator;
+import android.view.Choreographer;
 
-public class ShadowAnimationManager {
+/*
+Animates the shadow's length, width and direction together from one
+Choreographer frame callback.  A new target retargets from wherever the shadow
+currently is, so overlapping updates never fight, and the view is invalidated
+at most once per vsync.  Must be used from the main thread.
+ */
+public class ShadowAnimationManager implements Choreographer.FrameCallback {
 
     private float shadowLength;
     private float shadowWidth;
     private float shadowDirection;
 
+    // Values at the start of the current animation, and how far each one travels
+    private float startLength;
+    private float startWidth;
+    private float startDirection;
+    private float lengthDelta;
+    private float widthDelta;
+    private float directionDelta; // shortest way around, -180 to 180
+
+    private long durationNanos;
+    private long startFrameNanos = -1; // -1 until the first frame of the animation latches its start time
+    private boolean frameScheduled;
+
     private final SundialView sundialView;
     private final ShadowManager shadowManager;
-    private final long animationDuration = 1000; // Duration for all animations in milliseconds
+    private final Choreographer choreographer = Choreographer.getInstance();
+    static final long ANIMATION_DURATION_MS = 1000; // Duration of a full animation in milliseconds
 
     public ShadowAnimationManager(SundialView sundialView, ShadowManager shadowManager) {
 
@@ -21,77 +38,75 @@ public class ShadowAnimationManager {
 
     }
 
-    public void animateShadowLength(double solarAltitude, double phonePitch) {
-
-        float start = (float) shadowLength;
-        float end = (float) shadowManager.calculateShadowLength(solarAltitude, phonePitch);
+    public void startAnimation(double solarAltitude, double shadowDirection, double phonePitch) {
 
-        ValueAnimator lengthAnimator = ValueAnimator.ofFloat(start, end);
-        lengthAnimator.setDuration(animationDuration);
-        lengthAnimator.setInterpolator(new LinearInterpolator());
-        lengthAnimator.addUpdateListener(animation -> {
-            shadowLength = (float) animation.getAnimatedValue();
-            updateSundialView();
-        });
-        lengthAnimator.start();
+        float length = (float) shadowManager.calculateShadowLength(solarAltitude, phonePitch);
+        float angularWidth = (float) shadowManager.calculateAngularWidth(shadowDirection);
+        animateTo(length, angularWidth, (float) shadowDirection, ANIMATION_DURATION_MS);
 
     }
 
-    public void animateShadowWidth(float width) {
+    // Retarget all three properties from their current values; durationMs 0 jumps on the next frame
+    public void animateTo(float length, float width, float direction, long durationMs) {
+
+        startLength = shadowLength;
+        startWidth = shadowWidth;
+        startDirection = shadowDirection;
+        lengthDelta = length - shadowLength;
+        widthDelta = width - shadowWidth;
+        directionDelta = ((direction - shadowDirection + 180 + 360) % 360) - 180;
 
-        float start = shadowWidth;
-        float end = width;
+        durationNanos = Math.max(0, durationMs) * 1000000L;
+        startFrameNanos = -1;
 
-        ValueAnimator widthAnimator = ValueAnimator.ofFloat(start, end);
-        widthAnimator.setDuration(animationDuration);
-        widthAnimator.setInterpolator(new LinearInterpolator());
-        widthAnimator.addUpdateListener(animation -> {
-            shadowWidth = (float) animation.getAnimatedValue();
-            updateSundialView();
-        });
-        widthAnimator.start();
+        if (!frameScheduled) {
+            frameScheduled = true;
+            choreographer.postFrameCallback(this);
+        }
 
     }
 
-    public void animateShadowDirection(double shadowDirection) {
-        // Get the current direction
-        float start = this.shadowDirection;
-        float end = (float) shadowDirection;
-
-        // Calculate the shortest path between angles
-        float diff = ((end - start + 180 + 360) % 360) - 180;
-        end = start + diff;
-
-        Log.d("ShadowDebug", String.format(
-                "Animating direction: start=%.2f, target=%.2f, diff=%.2f",
-                start, shadowDirection, diff));
-
-        ValueAnimator directionAnimator = ValueAnimator.ofFloat(start, end);
-        directionAnimator.setDuration(animationDuration);
-        directionAnimator.setInterpolator(new LinearInterpolator());
-        directionAnimator.addUpdateListener(animation -> {
-            float value = (float) animation.getAnimatedValue();
-            this.shadowDirection = (value + 360) % 360; // Normalize to 0-360
-            updateSundialView();
-        });
-        directionAnimator.start();
+    // Stops at the current values; the shadow stays where it is
+    public void cancel() {
+
+        if (frameScheduled) {
+            choreographer.removeFrameCallback(this);
+            frameScheduled = false;
+        }
+
     }
 
+    @Override
+    public void doFrame(long frameTimeNanos) {
 
-    public void startAnimation(double solarAltitude, double shadowDirection, double phonePitch) {
+        long tickStart = Instrumentation.begin(Instrumentation.Stage.ANIMATION_TICK);
 
-        animateShadowLength(solarAltitude, phonePitch);
-        float angularWidth = (float) shadowManager.calculateAngularWidth(shadowDirection);
-        animateShadowWidth(angularWidth);
-        animateShadowDirection(shadowDirection);
+        if (startFrameNanos < 0) {
+            startFrameNanos = frameTimeNanos;
+        }
+        float fraction = durationNanos == 0 ? 1f
+                : Math.min(1f, (frameTimeNanos - startFrameNanos) / (float) durationNanos);
+
+        shadowLength = startLength + lengthDelta * fraction;
+        shadowWidth = startWidth + widthDelta * fraction;
+        shadowDirection = (startDirection + directionDelta * fraction + 360) % 360; // Normalize to 0-360
+        updateSundialView();
+
+        if (fraction < 1f) {
+            choreographer.postFrameCallback(this);
+        } else {
+            frameScheduled = false;
+        }
+
+        Instrumentation.end(Instrumentation.Stage.ANIMATION_TICK, tickStart);
 
     }
 
     private void updateSundialView() {
 
-        sundialView.updateShadow((float) shadowLength, (float) shadowWidth, (float) shadowDirection);
+        sundialView.updateShadow(shadowLength, shadowWidth, shadowDirection);
         sundialView.invalidate(); // triggers onDraw in SundialView
 
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.example.sundial;
+
+import android.view.Choreographer;
+
+/*
+Keeps the shadow following the phone's tilt without recomputing the sun.  The
+solar position changes slowly and is cached here when a calculation completes;
+orientation readings only re-run ShadowManager's cheap shadow geometry, at most
+once per display frame, and retarget the animation with a short duration so
+tilting feels live.  Must be used from the main thread.
+ */
+public class ShadowOrientationStage implements OrientationManager.OnOrientationChangedListener, Choreographer.FrameCallback {
+
+    // Long enough to smooth sensor jitter, short enough to track the hand
+    private static final long ORIENTATION_DURATION_MS = 120;
+
+    private final OrientationManager orientationManager;
+    private final ShadowManager shadowManager;
+    private final ShadowAnimationManager shadowAnimationManager;
+    private final Choreographer choreographer = Choreographer.getInstance();
+
+    private boolean hasSolarPosition;
+    private double solarAltitude;
+    private double solarAzimuth;
+
+    // Every sensor event publishes a new snapshot, so frames compare angles rather than snapshots;
+    // changes smaller than this are sensor noise and leave a running animation alone
+    private static final double ORIENTATION_EPSILON_DEGREES = 0.1;
+    private double appliedPitch;
+    private double appliedRoll;
+    private long solarAnimationEndNanos;
+    private boolean frameScheduled;
+
+    public ShadowOrientationStage(OrientationManager orientationManager, ShadowManager shadowManager,
+                                  ShadowAnimationManager shadowAnimationManager) {
+
+        this.orientationManager = orientationManager;
+        this.shadowManager = shadowManager;
+        this.shadowAnimationManager = shadowAnimationManager;
+
+    }
+
+    public void start() {
+
+        orientationManager.setOnOrientationChangedListener(this);
+
+    }
+
+    public void stop() {
+
+        orientationManager.setOnOrientationChangedListener(null);
+        if (frameScheduled) {
+            choreographer.removeFrameCallback(this);
+            frameScheduled = false;
+        }
+
+    }
+
+    // A new sun position animates over the full duration, from the current orientation
+    public void setSolarPosition(double altitude, double azimuth) {
+
+        setSolarPosition(altitude, azimuth, ShadowAnimationManager.ANIMATION_DURATION_MS);
+
+    }
+
+    // As above but over durationMs, for positions that change quickly, such as while scrubbing
+    public void setSolarPosition(double altitude, double azimuth, long durationMs) {
+
+        solarAltitude = altitude;
+        solarAzimuth = azimuth;
+        hasSolarPosition = true;
+        solarAnimationEndNanos = System.nanoTime() + durationMs * 1000000L;
+
+        applyShadow(orientationManager.getSnapshot(), durationMs);
+
+    }
+
+    @Override
+    public void onOrientationChanged(OrientationSnapshot snapshot) {
+
+        // Sensors can report faster than the display refreshes; coalesce to one update per frame
+        if (hasSolarPosition && !frameScheduled) {
+            frameScheduled = true;
+            choreographer.postFrameCallback(this);
+        }
+
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+
+        frameScheduled = false;
+
+        OrientationSnapshot orientation = orientationManager.getSnapshot();
+        if (Math.abs(orientation.getPitch() - appliedPitch) < ORIENTATION_EPSILON_DEGREES
+                && Math.abs(wrap180(orientation.getRoll() - appliedRoll)) < ORIENTATION_EPSILON_DEGREES) {
+            return;
+        }
+
+        // Retargeting mid-way through a sun animation keeps its remaining time, so tilting never cuts it short
+        long remainingMs = (solarAnimationEndNanos - frameTimeNanos) / 1000000L;
+        applyShadow(orientation, Math.max(ORIENTATION_DURATION_MS, remainingMs));
+
+    }
+
+    // Shadow geometry for the cached sun position seen from this orientation
+    private void applyShadow(OrientationSnapshot orientation, long durationMs) {
+
+        appliedPitch = orientation.getPitch();
+        appliedRoll = orientation.getRoll();
+
+        float length = (float) shadowManager.calculateShadowLength(solarAltitude, appliedPitch);
+        double direction = shadowManager.calculateShadowDirection(solarAzimuth, appliedRoll);
+        float width = (float) shadowManager.calculateAngularWidth(direction);
+        shadowAnimationManager.animateTo(length, width, (float) direction, durationMs);
+
+    }
+
+    private static double wrap180(double degrees) {
+
+        return ((degrees + 540) % 360) - 180;
+
+    }
+
+}
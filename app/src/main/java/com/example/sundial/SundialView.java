@@ -1,25 +1,71 @@
 package com.example.sundial;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.RectF;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.MotionEvent;
 import android.view.View;
 
 import androidx.annotation.NonNull;
 
 public class SundialView extends View {
 
+    // Horizontal drags scrub the displayed time away from now; called on the main thread
+    public interface OnScrubListener {
+
+        void onScrub(long offsetMillis);
+
+        void onScrubEnd();
+
+    }
+
     private Paint paint;
     private float shadowLength = 0f;
     private float shadowWidth = 0f;
     private float shadowDirection = 0f;
+    private int centerX;
+    private int centerY;
     private int outermostRadius;
     private int middleRadius;
+    private int middleRadius2;
+    private int innermostRadius;
+
+    // Roman numeral hour labels (upper half only for horizontal sundial)
+    private static final String[] ROMAN_NUMERALS = {"VI", "VII", "VIII", "IX", "X", "XI", "XII", "I", "II", "III", "IV", "V"};
+    private static final float NUMERAL_TEXT_SIZE = 36;
+
+    // Static dial geometry, laid out in onSizeChanged
+    private final float[] numeralX = new float[12];
+    private final float[] numeralY = new float[12];
+    private final float[] hourLines = new float[12 * 4];
+
+    // Circles, numerals, hour lines and compass letters rendered once per size; only the shadow is drawn per frame
+    private Bitmap dialLayer;
+
+    // Reused by drawShadow so a frame allocates nothing
+    private final Path shadowPath = new Path();
+    private final RectF shadowArcBounds = new RectF();
+
+    // The day's shadow-tip path; rebuilt only when the trajectory or the dial size changes
+    private ShadowTrajectory dayTrajectory;
+    private final Path trajectoryPath = new Path();
+    private Paint trajectoryPaint;
+    private int trajectoryPathRadius = -1;
+
+    // Moondial mode fades the shadow with the moon's phase; a new moon still leaves a faint outline
+    private static final int SHADOW_ALPHA = 128;
+    private static final float MIN_MOON_SHADOW_FRACTION = 0.15f;
+    private int shadowAlpha = SHADOW_ALPHA;
+
+    // A drag across the full width of the view scrubs this far
+    private static final long SCRUB_RANGE_MILLIS = 12 * 3600000L;
+    private OnScrubListener scrubListener;
+    private float scrubStartX;
 
     public SundialView(Context context, AttributeSet attributeSet) {
 
@@ -35,6 +81,42 @@ public class SundialView extends View {
         paint.setStyle(Paint.Style.STROKE);
         paint.setAntiAlias(true);
 
+        trajectoryPaint = new Paint();
+        trajectoryPaint.setColor(Color.GRAY);
+        trajectoryPaint.setStyle(Paint.Style.STROKE);
+        trajectoryPaint.setStrokeWidth(3);
+        trajectoryPaint.setAntiAlias(true);
+
+    }
+
+    public void setDayTrajectory(ShadowTrajectory trajectory) {
+
+        if (trajectory == dayTrajectory) return;
+        this.dayTrajectory = trajectory;
+        this.trajectoryPathRadius = -1; // rebuild on next draw
+        invalidate();
+
+    }
+
+    public ShadowTrajectory getDayTrajectory() {
+
+        return dayTrajectory;
+
+    }
+
+    // illuminatedFraction (0 - 1) is ignored when moonMode is false
+    public void setMoonMode(boolean moonMode, float illuminatedFraction) {
+
+        float strength = moonMode ? Math.max(MIN_MOON_SHADOW_FRACTION, Math.min(1f, illuminatedFraction)) : 1f;
+        shadowAlpha = Math.round(SHADOW_ALPHA * strength);
+        invalidate();
+
+    }
+
+    public void setOnScrubListener(OnScrubListener listener) {
+
+        this.scrubListener = listener;
+
     }
 
     public void updateShadow(float length, float width, float direction) {
@@ -45,97 +127,181 @@ public class SundialView extends View {
 
     }
 
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+
+        if (scrubListener == null || getWidth() == 0) {
+            return super.onTouchEvent(event);
+        }
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                scrubStartX = event.getX();
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                scrubListener.onScrub((long) ((event.getX() - scrubStartX) / getWidth() * SCRUB_RANGE_MILLIS));
+                return true;
+            case MotionEvent.ACTION_UP:
+                performClick();
+                scrubListener.onScrubEnd();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                scrubListener.onScrubEnd();
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+
+    }
+
+    @Override
+    public boolean performClick() {
+
+        return super.performClick();
+
+    }
+
+    // Radii, numeral positions and hour lines depend only on the view size, so they are laid out here
+    // and the whole static dial is rendered once into dialLayer
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+
+        centerX = width / 2;
+        centerY = height / 2;
+
+        outermostRadius = Math.min(width, height) / 2 - 60;
+        middleRadius = outermostRadius - 75;
+        middleRadius2 = middleRadius - 40;
+        innermostRadius = middleRadius2 - 40;
+
+        layoutMarkings();
+        releaseDialLayer();
+
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+
+        super.onDetachedFromWindow();
+        releaseDialLayer();
+
+    }
+
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
 
         super.onDraw(canvas);
+        long drawStart = Instrumentation.begin(Instrumentation.Stage.ON_DRAW);
 
-        // Calculate center of the sundial
-        int centerX = getWidth() / 2;
-        int centerY = getHeight() / 2;
+        if (dialLayer == null) {
+            renderDialLayer();
+        }
+        if (dialLayer != null) {
+            canvas.drawBitmap(dialLayer, 0, 0, null);
+        }
 
-        // Draw the Sundial circles
-        outermostRadius = Math.min(getWidth(), getHeight()) / 2 - 60;
-        middleRadius = outermostRadius - 75;
-        int middleRadius2 = middleRadius - 40;
-        int innermostRadius = middleRadius2 - 40;
+        drawTrajectory(canvas, centerX, centerY);
+
+        drawShadow(canvas, centerX, centerY);
+
+        Instrumentation.end(Instrumentation.Stage.ON_DRAW, drawStart);
+
+    }
+
+    // Positions of the Roman numerals and endpoints of the hour lines, distributed over the top half
+    // of the dial in 15° steps
+    private void layoutMarkings() {
+
+        paint.setTextSize(NUMERAL_TEXT_SIZE);
+        Paint.FontMetrics fontMetrics = paint.getFontMetrics();
+        float textHeight = fontMetrics.bottom - fontMetrics.top;
+
+        for (int i = 0; i < 12; i++) {
+
+            double angle = Math.toRadians((i * 15) - 173);
+            double cos = Math.cos(angle);
+            double sin = Math.sin(angle);
+
+            // Center the text around its raw position
+            int rawX = (int) (centerX + (middleRadius + 20) * cos);
+            int rawY = (int) (centerY + (middleRadius + 20) * sin);
+            float textWidth = paint.measureText(ROMAN_NUMERALS[i]);
+            numeralX[i] = rawX - (textWidth / 2);
+            numeralY[i] = rawY + (textHeight / 4);
+
+            if (i == 0) {
+                numeralX[i] -= 10; // VI
+            }
+            else if (i == 1) {
+                numeralX[i] -= 5; // VII
+            }
+
+            // Hour line from the middle circle to the inner circle
+            hourLines[i * 4] = (int) (centerX + middleRadius * cos);
+            hourLines[i * 4 + 1] = (int) (centerY + middleRadius * sin);
+            hourLines[i * 4 + 2] = (int) (centerX + innermostRadius * cos);
+            hourLines[i * 4 + 3] = (int) (centerY + innermostRadius * sin);
+        }
+
+    }
+
+    private void renderDialLayer() {
+
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) return;
+
+        dialLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas layerCanvas = new Canvas(dialLayer);
 
         // Outer Circle
         paint.setColor(Color.DKGRAY);
         paint.setStyle(Paint.Style.STROKE);
         paint.setStrokeWidth(8);
-        canvas.drawCircle(centerX, centerY, outermostRadius, paint);
+        layerCanvas.drawCircle(centerX, centerY, outermostRadius, paint);
 
         // Middle Circle
         paint.setStrokeWidth(4);
-        canvas.drawCircle(centerX, centerY, middleRadius, paint);
+        layerCanvas.drawCircle(centerX, centerY, middleRadius, paint);
 
         // Second Middle Circle
-        canvas.drawCircle(centerX, centerY, middleRadius2, paint);
+        layerCanvas.drawCircle(centerX, centerY, middleRadius2, paint);
 
         // Inner circle
-        canvas.drawCircle(centerX, centerY, innermostRadius, paint);
+        layerCanvas.drawCircle(centerX, centerY, innermostRadius, paint);
 
         // Draw hour and compass markings
-        drawMarkings(canvas, centerX, centerY, outermostRadius, middleRadius, middleRadius2, innermostRadius);
+        drawMarkings(layerCanvas);
 
-        drawCenterCircle(canvas, centerX, centerY);
+        drawCenterCircle(layerCanvas, centerX, centerY);
 
-        drawShadow(canvas, centerX, centerY);
+    }
+
+    private void releaseDialLayer() {
+
+        if (dialLayer != null) {
+            dialLayer.recycle();
+            dialLayer = null;
+        }
 
     }
 
-    private void drawMarkings(Canvas canvas, int centerX, int centerY, int outermostRadius, int middleRadius, int middleRadius2, int innermostRadius) {
+    private void drawMarkings(Canvas canvas) {
 
         paint.setStyle(Paint.Style.FILL);
         paint.setColor(Color.DKGRAY);
 
         // Roman numeral hour labels (upper half only for horizontal sundial)
-        String[] romanNumerals = {"VI", "VII", "VIII", "IX", "X", "XI", "XII", "I", "II", "III", "IV", "V"};
-
-        // Create a Rect to measure text bounds
-        Paint.FontMetrics fontMetrics = paint.getFontMetrics();
-
-        // Distribute Roman numerals over the top 180° (from -90° to +90°)
+        paint.setTextSize(NUMERAL_TEXT_SIZE);
         for (int i = 0; i < 12; i++) {
-
-            // Calculate angle for each numeral in the top half (15° increments)
-            double angle = Math.toRadians((i * 15) - 173); // Range: -90° (left) to +90° (right)
-
-            // Calculate raw position
-            int rawX = (int) (centerX + (middleRadius + 20) * Math.cos(angle));
-            int rawY = (int) (centerY + (middleRadius + 20) * Math.sin(angle));
-
-            // Measure text bounds to adjust for width and height
-            float textWidth = paint.measureText(romanNumerals[i]);
-            float textHeight = fontMetrics.bottom - fontMetrics.top;
-
-            // Center the text around its raw position
-            float adjustedX = rawX - (textWidth / 2); // Offset by half the width
-            float adjustedY = rawY + (textHeight / 4); // Offset vertically for alignment
-
-            if (romanNumerals[i].equals("VI")) {
-                adjustedX -= 10;
-            }
-            else if (romanNumerals[i].equals("VII")) {
-                adjustedX -= 5;
-            }
-
-            // Draw the numeral
-            paint.setTextSize(36);
-            canvas.drawText(romanNumerals[i], adjustedX, adjustedY, paint);
+            canvas.drawText(ROMAN_NUMERALS[i], numeralX[i], numeralY[i], paint);
         }
 
         // Draw hour lines from the center to the inner circle for the top half
-        for (int i = 0; i < 12; i++) {
-            double angle = Math.toRadians((i * 15) - 173);
-            int startX = (int) (centerX + middleRadius * Math.cos(angle));
-            int startY = (int) (centerY + middleRadius * Math.sin(angle));
-            int endX = (int) (centerX + innermostRadius * Math.cos(angle));
-            int endY = (int) (centerY + innermostRadius * Math.sin(angle));
-            paint.setStrokeWidth(3);
-            canvas.drawLine(startX, startY, endX, endY, paint);
-        }
+        paint.setStrokeWidth(3);
+        canvas.drawLines(hourLines, paint);
 
         // Draw compass directions
         paint.setColor(Color.BLACK);
@@ -167,10 +333,6 @@ public class SundialView extends View {
             // Need to convert to canvas coords (0° = East, clockwise)
             float canvasAngle = (shadowDirection + 270) % 360;
 
-            Log.d("ShadowDebug", String.format(
-                    "Shadow calc: direction=%.2f, canvasAngle=%.2f",
-                    shadowDirection, canvasAngle));
-
             // Draw only in upper half of sundial (angle between 180° and 360°)
             if (canvasAngle < 180) {
                 return;
@@ -188,11 +350,11 @@ public class SundialView extends View {
             if (leftAngle < 180) leftAngle = 180;
             if (rightAngle > 360) rightAngle = 360;
 
-            // Create the pizza slice path
-            Path shadowPath = new Path();
+            // Rebuild the pizza slice in the reused path
+            shadowPath.reset();
             shadowPath.moveTo(centerX, centerY);
 
-            RectF arcBounds = new RectF(
+            shadowArcBounds.set(
                     centerX - scaledShadowLength,
                     centerY - scaledShadowLength,
                     centerX + scaledShadowLength,
@@ -201,17 +363,63 @@ public class SundialView extends View {
 
             float sweepAngle = rightAngle - leftAngle;
 
-            shadowPath.arcTo(arcBounds, leftAngle, sweepAngle, false);
+            shadowPath.arcTo(shadowArcBounds, leftAngle, sweepAngle, false);
             shadowPath.lineTo(centerX, centerY);
             shadowPath.close();
 
             paint.setStyle(Paint.Style.FILL);
             paint.setColor(Color.DKGRAY);
-            paint.setAlpha(128);
+            paint.setAlpha(shadowAlpha);
             canvas.drawPath(shadowPath, paint);
         }
     }
 
+    // Polyline through the shadow tip over the day, in the same upper half of the dial the shadow is drawn in
+    private void drawTrajectory(Canvas canvas, int centerX, int centerY) {
+
+        if (dayTrajectory == null) return;
+
+        if (trajectoryPathRadius != outermostRadius) {
+            buildTrajectoryPath();
+            trajectoryPathRadius = outermostRadius;
+        }
+
+        canvas.save();
+        canvas.translate(centerX, centerY);
+        canvas.drawPath(trajectoryPath, trajectoryPaint);
+        canvas.restore();
+
+    }
+
+    // Path is relative to the dial center so it survives re-centering without a rebuild
+    private void buildTrajectoryPath() {
+
+        trajectoryPath.reset();
+        float maxShadowLength = outermostRadius - 10;
+        boolean drawing = false;
+
+        for (int i = 0; i < dayTrajectory.getSampleCount(); i++) {
+            double length = dayTrajectory.getLength(i);
+            double canvasAngle = (dayTrajectory.getDirection(i) + 270) % 360;
+            if (length <= 0 || canvasAngle < 180) {
+                drawing = false;
+                continue;
+            }
+
+            double radians = Math.toRadians(canvasAngle);
+            float radius = (float) Math.min(length, maxShadowLength);
+            float x = (float) (radius * Math.cos(radians));
+            float y = (float) (radius * Math.sin(radians));
+            if (drawing) {
+                trajectoryPath.lineTo(x, y);
+            } else {
+                trajectoryPath.moveTo(x, y);
+                drawing = true;
+            }
+        }
+
+    }
+
     public int getOutermostRadius() {
 
         return outermostRadius;
@@ -0,0 +1,92 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LocationStrategyTest {
+
+    // Stands in for FusedLocationProvider; fixes are pushed by the test
+    private static final class FakeLocationProvider implements LocationProvider {
+
+        double[] lastLocation;
+        Listener updatesListener;
+        long requestedInterval;
+        float requestedDistance;
+
+        @Override
+        public void requestLastLocation(Listener listener) {
+            if (lastLocation != null) listener.onLocation(lastLocation[0], lastLocation[1]);
+        }
+
+        @Override
+        public void requestUpdates(long intervalMillis, float minDistanceMeters, Listener listener) {
+            requestedInterval = intervalMillis;
+            requestedDistance = minDistanceMeters;
+            updatesListener = listener;
+        }
+
+        @Override
+        public void removeUpdates() {
+            updatesListener = null;
+        }
+
+        void deliver(double latitude, double longitude) {
+            if (updatesListener != null) updatesListener.onLocation(latitude, longitude);
+        }
+
+    }
+
+    private final FakeLocationProvider provider = new FakeLocationProvider();
+    private final LocationStrategy strategy = new LocationStrategy(provider, 60000L, 250, 1000);
+    private final List<double[]> accepted = new ArrayList<>();
+
+    @Test
+    public void start_usesLastKnownLocationFirstAndRequestsDistanceFilteredUpdates() {
+        provider.lastLocation = new double[]{40.7128, -74.006};
+
+        strategy.start((latitude, longitude) -> accepted.add(new double[]{latitude, longitude}));
+
+        assertEquals(1, accepted.size());
+        assertEquals(40.7128, accepted.get(0)[0], 0);
+        assertEquals(60000L, provider.requestedInterval);
+        assertEquals(250f, provider.requestedDistance, 0);
+    }
+
+    @Test
+    public void smallMoves_areSuppressed() {
+        strategy.start((latitude, longitude) -> accepted.add(new double[]{latitude, longitude}));
+
+        provider.deliver(40.7128, -74.006);
+        provider.deliver(40.7150, -74.006);  // ~245 m north
+        provider.deliver(40.7128, -74.0100); // ~340 m west of the first fix
+        provider.deliver(40.7300, -74.006);  // ~1.9 km north
+
+        assertEquals(2, accepted.size());
+        assertEquals(40.7300, accepted.get(1)[0], 0);
+    }
+
+    @Test
+    public void stop_ignoresLateFixes() {
+        strategy.start((latitude, longitude) -> accepted.add(new double[]{latitude, longitude}));
+        LocationProvider.Listener updates = provider.updatesListener;
+        strategy.stop();
+
+        updates.onLocation(51.5, 0.0);
+
+        assertTrue(accepted.isEmpty());
+        assertNull(provider.updatesListener);
+    }
+
+    @Test
+    public void distanceMeters_matchesKnownDistances() {
+        // One degree of latitude is about 111.2 km; New York to London is about 5570 km
+        assertEquals(111195, LocationStrategy.distanceMeters(0, 0, 1, 0), 10);
+        assertEquals(5570e3, LocationStrategy.distanceMeters(40.7128, -74.006, 51.5074, -0.1278), 5e3);
+        assertEquals(0, LocationStrategy.distanceMeters(10, 20, 10, 20), 0);
+    }
+
+}
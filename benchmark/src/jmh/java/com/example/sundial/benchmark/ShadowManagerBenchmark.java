@@ -0,0 +1,85 @@
+package com.example.sundial.benchmark;
+
+import com.example.sundial.ShadowManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Per-call cost of the shadow geometry run on every solar update and animation
+target.  Inputs cycle through a fixed table so the JIT cannot fold them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShadowManagerBenchmark {
+
+    private static final int INPUTS = 1024; // power of two, indexed with a mask
+
+    private ShadowManager shadowManager;
+    private double[] altitudes;
+    private double[] azimuths;
+    private double[] pitches;
+    private double[] rolls;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        // Same proportions MainActivity uses for a ~1080px wide dial
+        shadowManager = new ShadowManager(460, 380, 40, 10);
+
+        Random random = new Random(42);
+        altitudes = new double[INPUTS];
+        azimuths = new double[INPUTS];
+        pitches = new double[INPUTS];
+        rolls = new double[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            altitudes[i] = random.nextDouble() * 100 - 10;
+            azimuths[i] = random.nextDouble() * 360;
+            pitches[i] = random.nextDouble() * 60 - 30;
+            rolls[i] = random.nextDouble() * 60 - 30;
+        }
+
+    }
+
+    private int next() {
+
+        cursor = (cursor + 1) & (INPUTS - 1);
+        return cursor;
+
+    }
+
+    @Benchmark
+    public double calculateShadowLength() {
+
+        int i = next();
+        return shadowManager.calculateShadowLength(altitudes[i], pitches[i]);
+
+    }
+
+    @Benchmark
+    public double calculateAngularWidth() {
+
+        return shadowManager.calculateAngularWidth(azimuths[next()]);
+
+    }
+
+    @Benchmark
+    public double calculateShadowDirection() {
+
+        int i = next();
+        return shadowManager.calculateShadowDirection(azimuths[i], rolls[i]);
+
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.example.sundial.benchmark;
+
+import com.example.sundial.ChebyshevEphemeris;
+import com.example.sundial.SolarCalculator;
+import com.example.sundial.SolarEphemerisCache;
+import com.example.sundial.SolarStepper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Solar position throughput across latitudes and seasons.  The batch benchmarks
+evaluate a full day at one-minute resolution, so their scores are per instant.
+Run with the gc profiler (enabled in build.gradle) to see bytes allocated per op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SolarCalculatorBenchmark {
+
+    private static final int SAMPLES_PER_DAY = 1440;
+    private static final long MILLIS_PER_MINUTE = 60000L;
+
+    @Param({"-33.9", "0.0", "40.7", "69.6"})
+    public double latitude;
+
+    // 2024 March equinox, June solstice, September equinox and December solstice at 00:00 UTC
+    @Param({"1710892800000", "1718928000000", "1726704000000", "1734739200000"})
+    public long dayStartMillis;
+
+    private final double longitude = -74.0;
+
+    private long[] times;
+    private double[] altitudes;
+    private double[] azimuths;
+    private int cursor;
+
+    private SolarCalculator reusedCalculator;
+    private SolarEphemerisCache ephemerisCache;
+    private ChebyshevEphemeris chebyshevEphemeris;
+    private SolarStepper stepper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        times = new long[SAMPLES_PER_DAY];
+        for (int i = 0; i < SAMPLES_PER_DAY; i++) {
+            times[i] = dayStartMillis + i * MILLIS_PER_MINUTE;
+        }
+        altitudes = new double[SAMPLES_PER_DAY];
+        azimuths = new double[SAMPLES_PER_DAY];
+
+        reusedCalculator = new SolarCalculator(latitude, longitude, dayStartMillis);
+        ephemerisCache = new SolarEphemerisCache();
+        ephemerisCache.calculateBatch(latitude, longitude, times, altitudes, azimuths); // build the day's table
+        chebyshevEphemeris = new ChebyshevEphemeris(dayStartMillis, dayStartMillis + SAMPLES_PER_DAY * MILLIS_PER_MINUTE);
+        stepper = new SolarStepper(latitude, longitude, dayStartMillis, MILLIS_PER_MINUTE);
+
+    }
+
+    private long nextTime() {
+
+        cursor = (cursor + 1) % SAMPLES_PER_DAY;
+        return times[cursor];
+
+    }
+
+    // One calculator object per instant, as the app originally did on every location callback
+    @Benchmark
+    public double[] singleEvaluation() {
+
+        return new SolarCalculator(latitude, longitude, nextTime()).calculateAltitudeAndAzimuth();
+
+    }
+
+    @Benchmark
+    public double[] reusedCalculator() {
+
+        reusedCalculator.setTimeInMillis(nextTime());
+        return reusedCalculator.calculateAltitudeAndAzimuth();
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES_PER_DAY)
+    public void batchDay(Blackhole blackhole) {
+
+        SolarCalculator.calculateBatch(latitude, longitude, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES_PER_DAY)
+    public void cachedBatchDay(Blackhole blackhole) {
+
+        ephemerisCache.calculateBatch(latitude, longitude, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    // Same minutes as batchDay, by rotation recurrences between re-synchronisations
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES_PER_DAY)
+    public void stepperDay(Blackhole blackhole) {
+
+        stepper.reset(dayStartMillis);
+        stepper.fill(altitudes, azimuths, SAMPLES_PER_DAY);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES_PER_DAY)
+    public void chebyshevBatchDay(Blackhole blackhole) {
+
+        chebyshevEphemeris.calculateBatch(latitude, longitude, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+}
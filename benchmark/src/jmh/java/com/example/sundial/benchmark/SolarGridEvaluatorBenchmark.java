@@ -0,0 +1,98 @@
+package com.example.sundial.benchmark;
+
+import com.example.sundial.SolarGridEvaluator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/*
+Scaling of SolarGridEvaluator with cores on a one-million-point workload: a
+1000 x 1000 latitude/longitude grid, and a million scattered observers at one
+instant.  Each trial runs on its own ForkJoinPool of the given parallelism;
+compare the scores across the parallelism parameter, on a machine with at least
+that many cores (-p parallelism=1,2,4,8).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SolarGridEvaluatorBenchmark {
+
+    private static final int SIDE = 1000;
+    private static final int POINTS = SIDE * SIDE;
+    private static final long NOON_UTC = 1718884800000L; // 2024-06-20 12:00 UTC
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private SolarGridEvaluator evaluator;
+
+    private double[] gridLatitudes;
+    private double[] gridLongitudes;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] altitudes;
+    private double[] azimuths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        pool = new ForkJoinPool(parallelism);
+        evaluator = new SolarGridEvaluator(pool, 8192);
+
+        gridLatitudes = new double[SIDE];
+        gridLongitudes = new double[SIDE];
+        for (int i = 0; i < SIDE; i++) {
+            gridLatitudes[i] = -89.91 + i * 0.18;
+            gridLongitudes[i] = -179.82 + i * 0.36;
+        }
+
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = -80 + (i * 37L % 1601) * 0.1;
+            longitudes[i] = -180 + (i * 53L % 3601) * 0.1;
+        }
+        altitudes = new double[POINTS];
+        azimuths = new double[POINTS];
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        pool.shutdown();
+
+    }
+
+    @Benchmark
+    public void grid(Blackhole blackhole) {
+
+        evaluator.evaluateGrid(NOON_UTC, gridLatitudes, gridLongitudes, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    @Benchmark
+    public void observers(Blackhole blackhole) {
+
+        evaluator.evaluate(NOON_UTC, latitudes, longitudes, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+}
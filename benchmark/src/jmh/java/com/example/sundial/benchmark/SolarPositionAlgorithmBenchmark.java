@@ -0,0 +1,65 @@
+package com.example.sundial.benchmark;
+
+import com.example.sundial.SolarCalculator;
+import com.example.sundial.SolarPositionAlgorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Throughput of each SolarPositionAlgorithm tier over a day at one-minute
+resolution; scores are per instant.  Pair with SolarPositionErrorReport
+(./gradlew :benchmark:solarErrorReport) for the error side of the trade-off.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SolarPositionAlgorithmBenchmark {
+
+    private static final int SAMPLES_PER_DAY = 1440;
+    private static final long MILLIS_PER_MINUTE = 60000L;
+    private static final long JUNE_20_2024 = 1718841600000L;
+
+    @Param({"FAST", "STANDARD", "STANDARD_FAST_MATH", "PRECISE"})
+    public String tier;
+
+    private SolarPositionAlgorithm algorithm;
+    private long[] times;
+    private double[] altitudes;
+    private double[] azimuths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        algorithm = SolarPositionErrorReport.tier(tier);
+        times = new long[SAMPLES_PER_DAY];
+        for (int i = 0; i < SAMPLES_PER_DAY; i++) {
+            times[i] = JUNE_20_2024 + i * MILLIS_PER_MINUTE;
+        }
+        altitudes = new double[SAMPLES_PER_DAY];
+        azimuths = new double[SAMPLES_PER_DAY];
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES_PER_DAY)
+    public void batchDay(Blackhole blackhole) {
+
+        SolarCalculator.calculateBatch(algorithm, 40.7, -74.0, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+}
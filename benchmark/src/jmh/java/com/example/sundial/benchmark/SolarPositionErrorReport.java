@@ -0,0 +1,84 @@
+package com.example.sundial.benchmark;
+
+import com.example.sundial.PreciseSolarPosition;
+import com.example.sundial.SolarPositionAlgorithm;
+
+import java.util.Locale;
+
+/*
+Error of each SolarPositionAlgorithm tier against the precise tier with
+refraction switched off, over a year of daylight instants at latitudes from
+60S to 60N.  The precise tier itself is checked against NREL's published SPA
+example in the core tests.  Run with ./gradlew :benchmark:solarErrorReport
+ */
+public final class SolarPositionErrorReport {
+
+    private static final long YEAR_2024 = 1704067200000L;
+    private static final long MILLIS_PER_YEAR = 366 * 86400000L;
+    private static final long STEP_MILLIS = 3600000L + 60000L; // hourly, drifting through the minutes
+
+    private SolarPositionErrorReport() {
+    }
+
+    static SolarPositionAlgorithm tier(String name) {
+
+        switch (name) {
+            case "FAST":
+                return SolarPositionAlgorithm.FAST;
+            case "STANDARD":
+                return SolarPositionAlgorithm.STANDARD;
+            case "PRECISE":
+                return SolarPositionAlgorithm.PRECISE;
+            case "STANDARD_FAST_MATH":
+                return SolarPositionAlgorithm.STANDARD_FAST_MATH;
+            default:
+                throw new IllegalArgumentException("Unknown tier: " + name);
+        }
+
+    }
+
+    public static void main(String[] args) {
+
+        SolarPositionAlgorithm reference = new PreciseSolarPosition(0, 0, 12, Double.NaN);
+        double[] referenceAltitude = new double[1];
+        double[] referenceAzimuth = new double[1];
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+
+        System.out.println("tier                samples   max_err_deg   rms_err_deg");
+        for (String name : new String[]{"FAST", "STANDARD", "STANDARD_FAST_MATH"}) {
+            SolarPositionAlgorithm algorithm = tier(name);
+            long samples = 0;
+            double maxError = 0;
+            double sumSquares = 0;
+
+            for (double latitude = -60; latitude <= 60; latitude += 15) {
+                for (long time = YEAR_2024; time < YEAR_2024 + MILLIS_PER_YEAR; time += STEP_MILLIS) {
+                    reference.calculate(latitude, -74.0, time, referenceAltitude, referenceAzimuth, 0);
+                    if (referenceAltitude[0] < 0) continue;
+                    algorithm.calculate(latitude, -74.0, time, altitude, azimuth, 0);
+
+                    // Angular separation on the sky between the two positions
+                    double error = separation(referenceAltitude[0], referenceAzimuth[0], altitude[0], azimuth[0]);
+                    maxError = Math.max(maxError, error);
+                    sumSquares += error * error;
+                    samples++;
+                }
+            }
+
+            System.out.println(String.format(Locale.US, "%-18s %8d %13.5f %13.5f",
+                    name, samples, maxError, Math.sqrt(sumSquares / samples)));
+        }
+
+    }
+
+    private static double separation(double altitude1, double azimuth1, double altitude2, double azimuth2) {
+
+        double a1 = Math.toRadians(altitude1);
+        double a2 = Math.toRadians(altitude2);
+        double cosine = Math.sin(a1) * Math.sin(a2) + Math.cos(a1) * Math.cos(a2) * Math.cos(Math.toRadians(azimuth1 - azimuth2));
+        return Math.toDegrees(Math.acos(Math.min(1, cosine)));
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.sundial.benchmark;
+
+import com.example.sundial.SolarCalculator;
+import com.example.sundial.SolarPositionAlgorithm;
+import com.example.sundial.vector.VectorSolarBatch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Scalar against SIMD batch solar positions: a week at one-minute resolution for
+one observer, and the same instants with a different observer each.  Scores
+are per position.  The vector lane count follows the CPU (four doubles on
+AVX2, eight on AVX-512); limit it with -XX:MaxVectorSize=32 to measure AVX2
+on a wider machine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VectorSolarBatchBenchmark {
+
+    private static final int SAMPLES = 7 * 1440;
+    private static final long WEEK_START = 1718841600000L; // 2024-06-20 00:00 UTC
+
+    private final double latitude = 40.7;
+    private final double longitude = -74.0;
+
+    private long[] times;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] altitudes;
+    private double[] azimuths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        if (!VectorSolarBatch.isVectorized()) {
+            throw new IllegalStateException("Run with --add-modules jdk.incubator.vector");
+        }
+
+        times = new long[SAMPLES];
+        latitudes = new double[SAMPLES];
+        longitudes = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            times[i] = WEEK_START + i * 60000L;
+            latitudes[i] = -80 + (i * 37 % 1601) * 0.1;
+            longitudes[i] = -180 + (i * 53 % 3601) * 0.1;
+        }
+        altitudes = new double[SAMPLES];
+        azimuths = new double[SAMPLES];
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void scalarBatch(Blackhole blackhole) {
+
+        SolarCalculator.calculateBatch(latitude, longitude, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    // Same polynomial trig as the vector kernel, one lane at a time
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void scalarFastMathBatch(Blackhole blackhole) {
+
+        SolarCalculator.calculateBatch(SolarPositionAlgorithm.STANDARD_FAST_MATH, latitude, longitude, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void vectorBatch(Blackhole blackhole) {
+
+        VectorSolarBatch.calculateBatch(latitude, longitude, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void scalarBatchPerObserver(Blackhole blackhole) {
+
+        SolarCalculator.calculateBatch(latitudes, longitudes, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void vectorBatchPerObserver(Blackhole blackhole) {
+
+        VectorSolarBatch.calculateBatch(latitudes, longitudes, times, altitudes, azimuths);
+        blackhole.consume(altitudes);
+        blackhole.consume(azimuths);
+
+    }
+
+}
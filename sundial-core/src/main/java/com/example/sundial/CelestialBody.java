@@ -0,0 +1,9 @@
+package com.example.sundial;
+
+// Which body casts the dial's shadow
+public enum CelestialBody {
+
+    SUN,
+    MOON
+
+}
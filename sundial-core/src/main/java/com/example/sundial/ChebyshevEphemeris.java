@@ -0,0 +1,355 @@
+package com.example.sundial;
+
+import java.nio.DoubleBuffer;
+
+/*
+The sun's declination and right ascension over a fixed time range, compressed
+into piecewise Chebyshev polynomials fitted from SolarCalculator.  Each segment
+covers the same span of time, so finding it is one division, and evaluating it
+is a Clenshaw recurrence of a few multiply-adds per coordinate with no trig;
+only the observer-dependent hour angle step still runs in full.
+
+getMaxError() is an error bound, not just the worst difference seen.  An
+interpolant at the n Chebyshev roots is off by at most twice the sum of the
+function's Chebyshev coefficients from degree n up.  That tail is taken from a
+second fit at 2n nodes, added to the worst residual found at several check
+points between each pair of nodes, and the total is doubled as a safety
+margin.
+Instances are immutable and can be shared between threads; EphemerisFile
+stores the coefficients on disk and maps them back without copying.
+ */
+public final class ChebyshevEphemeris {
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    // Bounded at about 3e-7 degrees for the sun (6e-8 measured): far below SolarCalculator's own accuracy
+    public static final long DEFAULT_SEGMENT_MILLIS = 32 * MILLIS_PER_DAY;
+    public static final int DEFAULT_COEFFICIENTS = 8;
+
+    // Smallest segment fit() will try before giving up on a tolerance
+    private static final long MIN_SEGMENT_MILLIS = MILLIS_PER_DAY / 24;
+
+    // Check points per fitting node when measuring the error
+    private static final int CHECKS_PER_NODE = 4;
+
+    // Margin on the error bound for the part of the coefficient tail beyond the 2n-node reference fit
+    private static final double ERROR_BOUND_SAFETY_FACTOR = 2;
+
+    private final long startMillis;
+    private final long endMillis;
+    private final long segmentMillis;
+    private final int coefficientCount;
+
+    // Per segment, coefficientCount declination coefficients (radians) then as many right ascension
+    // coefficients (degrees, unwrapped within the segment).  The constant terms are stored halved.
+    // Only absolute gets are used, so one buffer (heap or mapped) serves any number of threads.
+    private final DoubleBuffer coefficients;
+    private final int segmentCount;
+    private final double maxError; // degrees
+
+    public ChebyshevEphemeris(long startMillis, long endMillis) {
+
+        this(startMillis, endMillis, DEFAULT_SEGMENT_MILLIS, DEFAULT_COEFFICIENTS);
+
+    }
+
+    public ChebyshevEphemeris(long startMillis, long endMillis, long segmentMillis, int coefficientCount) {
+
+        if (endMillis <= startMillis) {
+            throw new IllegalArgumentException("End must be after start: " + startMillis + " - " + endMillis);
+        }
+        if (segmentMillis <= 0) {
+            throw new IllegalArgumentException("segmentMillis must be positive: " + segmentMillis);
+        }
+        if (coefficientCount < 2) {
+            throw new IllegalArgumentException("At least two coefficients are needed: " + coefficientCount);
+        }
+
+        long segments = (endMillis - startMillis + segmentMillis - 1) / segmentMillis;
+        if (segments * 2 * coefficientCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many segments for the range: " + segments);
+        }
+
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.segmentMillis = segmentMillis;
+        this.coefficientCount = coefficientCount;
+        this.segmentCount = (int) segments;
+        double[] fitted = new double[segmentCount * 2 * coefficientCount];
+        this.coefficients = DoubleBuffer.wrap(fitted);
+
+        double[] terms = new double[3];
+        double[] declinations = new double[2 * coefficientCount];
+        double[] rightAscensions = new double[2 * coefficientCount];
+        double worstError = 0;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            sampleNodes(segment, coefficientCount, terms, declinations, rightAscensions);
+            int offset = segment * 2 * coefficientCount;
+            for (int j = 0; j < coefficientCount; j++) {
+                fitted[offset + j] = chebyshevCoefficient(declinations, coefficientCount, j);
+                fitted[offset + coefficientCount + j] = chebyshevCoefficient(rightAscensions, coefficientCount, j);
+            }
+
+            double tail = coefficientTail(segment, terms, declinations, rightAscensions);
+            double bound = ERROR_BOUND_SAFETY_FACTOR * (measureError(segment, terms) + 2 * tail);
+            worstError = Math.max(worstError, bound);
+        }
+        this.maxError = worstError;
+
+    }
+
+    // Previously fitted coefficients, e.g. mapped from a file by EphemerisFile; the buffer is used as is
+    ChebyshevEphemeris(long startMillis, long endMillis, long segmentMillis, int coefficientCount,
+                       DoubleBuffer coefficients, double maxError) {
+
+        long segments = endMillis > startMillis && segmentMillis > 0
+                ? (endMillis - startMillis + segmentMillis - 1) / segmentMillis : -1;
+        if (segments <= 0 || coefficientCount < 2 || coefficients.capacity() != segments * 2 * coefficientCount) {
+            throw new IllegalArgumentException("Coefficients do not match the range and segment layout");
+        }
+
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.segmentMillis = segmentMillis;
+        this.coefficientCount = coefficientCount;
+        this.segmentCount = (int) segments;
+        this.coefficients = coefficients;
+        this.maxError = maxError;
+
+    }
+
+    // Longest segments (and so the smallest table) with the default coefficient count whose error is within
+    // toleranceDegrees
+    public static ChebyshevEphemeris fit(long startMillis, long endMillis, double toleranceDegrees) {
+
+        if (!(toleranceDegrees > 0)) {
+            throw new IllegalArgumentException("Tolerance must be positive: " + toleranceDegrees);
+        }
+
+        for (long segment = DEFAULT_SEGMENT_MILLIS; segment >= MIN_SEGMENT_MILLIS; segment /= 2) {
+            ChebyshevEphemeris ephemeris = new ChebyshevEphemeris(startMillis, endMillis, segment, DEFAULT_COEFFICIENTS);
+            if (ephemeris.maxError <= toleranceDegrees) {
+                return ephemeris;
+            }
+        }
+        throw new IllegalArgumentException("Cannot reach a tolerance of " + toleranceDegrees + " degrees");
+
+    }
+
+    public long getStartMillis() {
+
+        return startMillis;
+
+    }
+
+    public long getEndMillis() {
+
+        return endMillis;
+
+    }
+
+    long getSegmentMillis() {
+
+        return segmentMillis;
+
+    }
+
+    int getCoefficientCount() {
+
+        return coefficientCount;
+
+    }
+
+    // Read-only view sharing the coefficients, positioned at 0
+    DoubleBuffer getCoefficients() {
+
+        return coefficients.asReadOnlyBuffer();
+
+    }
+
+    public boolean contains(long timeInMillis) {
+
+        return timeInMillis >= startMillis && timeInMillis <= endMillis;
+
+    }
+
+    // Bound (degrees) on the difference from SolarCalculator's declination and right ascension over the whole range
+    public double getMaxError() {
+
+        return maxError;
+
+    }
+
+    public double[] calculateAltitudeAndAzimuth(double latitude, double longitude, long timeInMillis) {
+
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        calculate(latitude, longitude, timeInMillis, altitude, azimuth, 0);
+        return new double[]{altitude[0], azimuth[0]};
+
+    }
+
+    public void calculateBatch(double latitude, double longitude, long[] timesInMillis,
+                               double[] altitudeOut, double[] azimuthOut) {
+
+        if (altitudeOut.length < timesInMillis.length || azimuthOut.length < timesInMillis.length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the timestamp array");
+        }
+
+        for (int i = 0; i < timesInMillis.length; i++) {
+            calculate(latitude, longitude, timesInMillis[i], altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    // Altitude/azimuth in degrees, written into slot [index] of the output arrays
+    public void calculate(double latitude, double longitude, long timeInMillis,
+                          double[] altitudeOut, double[] azimuthOut, int index) {
+
+        int segment = segmentIndex(timeInMillis);
+        int offset = segment * 2 * coefficientCount;
+        double x = segmentPosition(segment, timeInMillis);
+
+        double declination = clenshaw(offset, x);
+        double rightAscension = normalizeDegrees(clenshaw(offset + coefficientCount, x));
+
+        SolarCalculator.calculateHorizontalCoordinates(SolarCalculator.daysSinceJ2000(timeInMillis), latitude, longitude,
+                declination, rightAscension, altitudeOut, azimuthOut, index);
+
+    }
+
+    // Solar declination in degrees
+    public double getDeclination(long timeInMillis) {
+
+        int segment = segmentIndex(timeInMillis);
+        return Math.toDegrees(clenshaw(segment * 2 * coefficientCount, segmentPosition(segment, timeInMillis)));
+
+    }
+
+    // Solar right ascension in degrees, 0 - 360
+    public double getRightAscension(long timeInMillis) {
+
+        int segment = segmentIndex(timeInMillis);
+        return normalizeDegrees(clenshaw(segment * 2 * coefficientCount + coefficientCount, segmentPosition(segment, timeInMillis)));
+
+    }
+
+    private int segmentIndex(long timeInMillis) {
+
+        if (!contains(timeInMillis)) {
+            throw new IllegalArgumentException("Time " + timeInMillis + " is outside " + startMillis + " - " + endMillis);
+        }
+        // endMillis itself may fall exactly on the boundary after the last segment
+        return (int) Math.min((timeInMillis - startMillis) / segmentMillis, segmentCount - 1);
+
+    }
+
+    // Position within the segment mapped onto the polynomials' domain, -1 to 1
+    private double segmentPosition(int segment, long timeInMillis) {
+
+        return 2.0 * (timeInMillis - startMillis - segment * segmentMillis) / segmentMillis - 1;
+
+    }
+
+    // Sum of c[j] * T_j(x) by Clenshaw's recurrence; the constant term is stored pre-halved
+    private double clenshaw(int offset, double x) {
+
+        double twoX = 2 * x;
+        double next = 0;
+        double afterNext = 0;
+        for (int j = coefficientCount - 1; j >= 1; j--) {
+            double current = twoX * next - afterNext + coefficients.get(offset + j);
+            afterNext = next;
+            next = current;
+        }
+        return x * next - afterNext + coefficients.get(offset);
+
+    }
+
+    // Values at the n roots of T_n, which keep the interpolant close to the best polynomial approximation.
+    // Nodes run from the segment start forwards (x rising), so right ascension can be unwrapped in time order.
+    private void sampleNodes(int segment, int n, double[] terms, double[] declinations, double[] rightAscensions) {
+
+        for (int k = n - 1; k >= 0; k--) {
+            double x = Math.cos(Math.PI * (k + 0.5) / n);
+            SolarCalculator.calculateEquatorialCoordinates(daysSinceJ2000(segment, x), terms);
+            declinations[k] = terms[0];
+            rightAscensions[k] = terms[1];
+            if (k < n - 1) {
+                rightAscensions[k] = unwrapNear(rightAscensions[k], rightAscensions[k + 1]);
+            }
+        }
+
+    }
+
+    // Coefficient j of the interpolant through the first n values; the constant term is halved
+    private static double chebyshevCoefficient(double[] values, int n, int j) {
+
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += values[k] * Math.cos(Math.PI * j * (k + 0.5) / n);
+        }
+        return sum * (j == 0 ? 1.0 / n : 2.0 / n);
+
+    }
+
+    // Sum of the magnitudes of coefficients n to 2n - 1 (degrees), from a fit at twice the nodes: the part of
+    // each coordinate the n-coefficient polynomial cannot represent
+    private double coefficientTail(int segment, double[] terms, double[] declinations, double[] rightAscensions) {
+
+        int n = coefficientCount;
+        sampleNodes(segment, 2 * n, terms, declinations, rightAscensions);
+
+        double declinationTail = 0;
+        double rightAscensionTail = 0;
+        for (int j = n; j < 2 * n; j++) {
+            declinationTail += Math.abs(chebyshevCoefficient(declinations, 2 * n, j));
+            rightAscensionTail += Math.abs(chebyshevCoefficient(rightAscensions, 2 * n, j));
+        }
+        return Math.max(Math.toDegrees(declinationTail), rightAscensionTail);
+
+    }
+
+    // Worst declination or right ascension error (degrees) at evenly spaced points across the segment
+    private double measureError(int segment, double[] terms) {
+
+        int offset = segment * 2 * coefficientCount;
+        int checks = coefficientCount * CHECKS_PER_NODE;
+        double worst = 0;
+        for (int i = 0; i <= checks; i++) {
+            double x = -1 + 2.0 * i / checks;
+            SolarCalculator.calculateEquatorialCoordinates(daysSinceJ2000(segment, x), terms);
+
+            double declinationError = Math.toDegrees(Math.abs(clenshaw(offset, x) - terms[0]));
+            double rightAscensionError = Math.abs(normalizeDegrees(clenshaw(offset + coefficientCount, x)) - terms[1]);
+            if (rightAscensionError > 180) rightAscensionError = 360 - rightAscensionError;
+
+            worst = Math.max(worst, Math.max(declinationError, rightAscensionError));
+        }
+        return worst;
+
+    }
+
+    private double daysSinceJ2000(int segment, double x) {
+
+        long segmentStart = startMillis + segment * segmentMillis;
+        double offsetMillis = (x + 1) / 2 * segmentMillis;
+        return SolarCalculator.daysSinceJ2000(segmentStart) + offsetMillis / MILLIS_PER_DAY;
+
+    }
+
+    // degrees shifted by whole turns to within 180 of reference
+    private static double unwrapNear(double degrees, double reference) {
+
+        return degrees + 360 * Math.round((reference - degrees) / 360);
+
+    }
+
+    private static double normalizeDegrees(double degrees) {
+
+        double normalized = degrees % 360;
+        return normalized < 0 ? normalized + 360 : normalized;
+
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.example.sundial;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+Binary form of a ChebyshevEphemeris, generated offline and memory-mapped at
+startup.  The file is a fixed header followed by the raw coefficients, so
+opening it is a header check: lookups read the coefficients straight out of
+the mapped pages with no parsing and no copy onto the heap, and one mapping
+can be shared by every thread of a batch job.
+
+Layout (big-endian):
+
+    int    magic "SEPH"
+    int    format version
+    long   start, epoch millis
+    long   end, epoch millis
+    long   segment length, millis
+    int    coefficients per coordinate
+    int    segment count
+    double max error, degrees
+    double coefficients[segment count][2][coefficients per coordinate]
+
+Generate with ./gradlew :sundial-core:generateEphemeris (see main()).
+ */
+public final class EphemerisFile {
+
+    private static final int MAGIC = 0x53455048; // "SEPH"
+    private static final int VERSION = 1;
+    static final int HEADER_BYTES = 48;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private EphemerisFile() {
+    }
+
+    public static void write(ChebyshevEphemeris ephemeris, File file) throws IOException {
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(ephemeris, out);
+        }
+
+    }
+
+    public static void write(ChebyshevEphemeris ephemeris, OutputStream out) throws IOException {
+
+        DoubleBuffer coefficients = ephemeris.getCoefficients();
+        int coefficientCount = ephemeris.getCoefficientCount();
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(ephemeris.getStartMillis());
+        data.writeLong(ephemeris.getEndMillis());
+        data.writeLong(ephemeris.getSegmentMillis());
+        data.writeInt(coefficientCount);
+        data.writeInt(coefficients.capacity() / (2 * coefficientCount));
+        data.writeDouble(ephemeris.getMaxError());
+        for (int i = 0; i < coefficients.capacity(); i++) {
+            data.writeDouble(coefficients.get(i));
+        }
+        data.flush();
+
+    }
+
+    // Maps the whole file read-only; the mapping outlives the channel and is released by the garbage collector
+    public static ChebyshevEphemeris map(File file) throws IOException {
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            return map(channel, 0, channel.size());
+        }
+
+    }
+
+    // For a file embedded in a larger one, such as an uncompressed asset inside an APK
+    public static ChebyshevEphemeris map(FileChannel channel, long offset, long length) throws IOException {
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        return read(buffer);
+
+    }
+
+    // Wraps the buffer's contents from its position to its limit; nothing is copied
+    public static ChebyshevEphemeris read(ByteBuffer buffer) {
+
+        ByteBuffer header = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        if (header.remaining() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an ephemeris file");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported ephemeris version: " + header.getInt(4));
+        }
+
+        long startMillis = header.getLong(8);
+        long endMillis = header.getLong(16);
+        long segmentMillis = header.getLong(24);
+        int coefficientCount = header.getInt(32);
+        int segmentCount = header.getInt(36);
+        double maxError = header.getDouble(40);
+
+        long coefficientBytes = (long) segmentCount * 2 * coefficientCount * Double.BYTES;
+        if (segmentCount <= 0 || coefficientCount <= 0 || header.remaining() - HEADER_BYTES != coefficientBytes) {
+            throw new IllegalArgumentException("Truncated or corrupt ephemeris file");
+        }
+
+        header.position(HEADER_BYTES);
+        DoubleBuffer coefficients = header.slice().order(ByteOrder.BIG_ENDIAN).asDoubleBuffer();
+        return new ChebyshevEphemeris(startMillis, endMillis, segmentMillis, coefficientCount, coefficients, maxError);
+
+    }
+
+    // Midnight UTC on January 1st of the given year, in epoch millis
+    static long yearStartMillis(int year) {
+
+        long days = 365L * (year - 1970) + Math.floorDiv(year - 1969, 4)
+                - Math.floorDiv(year - 1901, 100) + Math.floorDiv(year - 1601, 400);
+        return days * MILLIS_PER_DAY;
+
+    }
+
+    // Usage: EphemerisFile <output file> <first year> <last year>
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 3) {
+            System.err.println("Usage: EphemerisFile <output file> <first year> <last year>");
+            System.exit(2);
+        }
+
+        File output = new File(args[0]);
+        int firstYear = Integer.parseInt(args[1]);
+        int lastYear = Integer.parseInt(args[2]);
+
+        ChebyshevEphemeris ephemeris = new ChebyshevEphemeris(yearStartMillis(firstYear), yearStartMillis(lastYear + 1));
+        File directory = output.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        write(ephemeris, output);
+
+        System.out.println("Wrote " + output + ": " + firstYear + "-" + lastYear + ", " + output.length()
+                + " bytes, max error " + ephemeris.getMaxError() + " degrees");
+
+    }
+
+}
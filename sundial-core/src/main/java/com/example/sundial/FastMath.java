@@ -0,0 +1,132 @@
+package com.example.sundial;
+
+/*
+Polynomial approximations of the trig functions the solar kernels use, for
+the opt-in fast-math mode (see SolarCalculator.setFastMath).  Each argument is
+range-reduced to a small interval around zero and finished with a short
+series, so a call is a few multiply-adds instead of a library call.
+
+Maximum absolute errors, in radians (or plain units for sin/cos), measured by
+FastMathTest's sweeps:
+
+    sin, cos   5e-8  for |x| up to 1e4
+    asin       5e-7  over [-1, 1]
+    atan2      1e-8  over all finite arguments
+
+That is under 0.00003 degrees per call, far inside the 0.01 degree budget of
+the altitude and azimuth built on top.  Arguments are not checked: NaN and
+infinities give unspecified results.
+ */
+public final class FastMath {
+
+    public static final double SIN_COS_MAX_ERROR = 5e-8;
+    public static final double ASIN_MAX_ERROR = 5e-7;
+    public static final double ATAN2_MAX_ERROR = 1e-8;
+
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double TWO_OVER_PI = 2 / Math.PI;
+
+    // pi/2 split in two, so x - k * pi/2 loses no precision for moderate k (Cody-Waite reduction)
+    private static final double HALF_PI_HIGH = 1.5707963267341256;
+    private static final double HALF_PI_LOW = 6.077100506506192e-11;
+
+    private static final double SQRT_3 = 1.7320508075688772;
+    private static final double TAN_PI_OVER_12 = 0.2679491924311227;
+    private static final double PI_OVER_6 = Math.PI / 6;
+
+    private FastMath() {
+    }
+
+    public static double sin(double x) {
+
+        long quadrant = Math.round(x * TWO_OVER_PI);
+        double r = (x - quadrant * HALF_PI_HIGH) - quadrant * HALF_PI_LOW;
+        switch ((int) (quadrant & 3)) {
+            case 0: return sinKernel(r);
+            case 1: return cosKernel(r);
+            case 2: return -sinKernel(r);
+            default: return -cosKernel(r);
+        }
+
+    }
+
+    public static double cos(double x) {
+
+        long quadrant = Math.round(x * TWO_OVER_PI);
+        double r = (x - quadrant * HALF_PI_HIGH) - quadrant * HALF_PI_LOW;
+        switch ((int) (quadrant & 3)) {
+            case 0: return cosKernel(r);
+            case 1: return -sinKernel(r);
+            case 2: return -cosKernel(r);
+            default: return sinKernel(r);
+        }
+
+    }
+
+    // x in [-1, 1]; the series converges slowly near 1, so the upper half goes through asin(x) = pi/2 - 2 asin(sqrt((1 - x) / 2))
+    public static double asin(double x) {
+
+        double a = Math.abs(x);
+        double result = a <= 0.5 ? asinKernel(a) : HALF_PI - 2 * asinKernel(Math.sqrt((1 - a) / 2));
+        return x < 0 ? -result : result;
+
+    }
+
+    public static double atan2(double y, double x) {
+
+        double absX = Math.abs(x);
+        double absY = Math.abs(y);
+        if (absX == 0 && absY == 0) return 0;
+
+        // atan of the smaller ratio, then reflected into the right octant and quadrant
+        boolean steep = absY > absX;
+        double result = atan(steep ? absX / absY : absY / absX);
+        if (steep) result = HALF_PI - result;
+        if (x < 0) result = Math.PI - result;
+        return y < 0 ? -result : result;
+
+    }
+
+    // z in [0, 1]; above tan(pi/12), shift by pi/6 with atan(z) = pi/6 + atan((z sqrt3 - 1) / (z + sqrt3))
+    private static double atan(double z) {
+
+        if (z <= TAN_PI_OVER_12) {
+            return atanKernel(z);
+        }
+        return PI_OVER_6 + atanKernel((z * SQRT_3 - 1) / (z + SQRT_3));
+
+    }
+
+    // Taylor series on [-pi/4, pi/4]
+    private static double sinKernel(double r) {
+
+        double r2 = r * r;
+        return r * (1 + r2 * (-1.0 / 6 + r2 * (1.0 / 120 + r2 * (-1.0 / 5040 + r2 * (1.0 / 362880)))));
+
+    }
+
+    private static double cosKernel(double r) {
+
+        double r2 = r * r;
+        return 1 + r2 * (-0.5 + r2 * (1.0 / 24 + r2 * (-1.0 / 720 + r2 * (1.0 / 40320))));
+
+    }
+
+    // Taylor series on [0, 0.5]
+    private static double asinKernel(double x) {
+
+        double x2 = x * x;
+        return x * (1 + x2 * (1.0 / 6 + x2 * (3.0 / 40 + x2 * (15.0 / 336 + x2 * (105.0 / 3456
+                + x2 * (945.0 / 42240 + x2 * (10395.0 / 599040 + x2 * (135135.0 / 9676800))))))));
+
+    }
+
+    // Taylor series on [-tan(pi/12), tan(pi/12)]
+    private static double atanKernel(double z) {
+
+        double z2 = z * z;
+        return z * (1 + z2 * (-1.0 / 3 + z2 * (1.0 / 5 + z2 * (-1.0 / 7 + z2 * (1.0 / 9 + z2 * (-1.0 / 11))))));
+
+    }
+
+}
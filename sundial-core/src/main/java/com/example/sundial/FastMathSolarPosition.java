@@ -0,0 +1,72 @@
+package com.example.sundial;
+
+/*
+SolarCalculator's almanac formulas with every trig call replaced by FastMath,
+and the multiple angles of the equation of center and the declination's
+cosine derived algebraically instead of with further calls.  Stays within
+0.01 degrees of STANDARD (FastMathTest sweeps the whole domain).  Used by
+SolarPositionAlgorithm.STANDARD_FAST_MATH, and by a SolarCalculator's
+calculateAltitudeAndAzimuth() after setFastMath(true).
+ */
+public final class FastMathSolarPosition implements SolarPositionAlgorithm {
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+
+    @Override
+    public void calculate(double latitude, double longitude, long timeInMillis,
+                          double[] altitudeOut, double[] azimuthOut, int index) {
+
+        calculateAltitudeAndAzimuth(SolarCalculator.daysSinceJ2000(timeInMillis), latitude, longitude, altitudeOut, azimuthOut, index);
+
+    }
+
+    static void calculateAltitudeAndAzimuth(double daysPassedSinceJ2000Epoch, double latitude, double longitude,
+                                            double[] altitudeOut, double[] azimuthOut, int index) {
+
+        double julianCentury = daysPassedSinceJ2000Epoch / 36525.0;
+
+        double meanSolarAnomaly = (357.52911 + 35999.05029 * julianCentury) % 360;
+        double meanAnomaly_rad = meanSolarAnomaly * DEGREES_TO_RADIANS;
+        double sinM = FastMath.sin(meanAnomaly_rad);
+        double cosM = FastMath.cos(meanAnomaly_rad);
+        double sin2M = 2 * sinM * cosM;
+        double sin3M = sinM * (3 - 4 * sinM * sinM);
+        double equationOfCenter = (1.914602 - 0.004817 * julianCentury - 0.000014 * julianCentury * julianCentury) * sinM
+                + (0.019993 - 0.000101 * julianCentury) * sin2M
+                + 0.000289 * sin3M;
+
+        double meanLongitude = (280.46646 + 36000.76983 * julianCentury) % 360;
+        double lambda_rad = (meanLongitude + equationOfCenter) * DEGREES_TO_RADIANS;
+        double epsilon_rad = (23.439291 - 0.0130042 * julianCentury) * DEGREES_TO_RADIANS;
+
+        double sinLambda = FastMath.sin(lambda_rad);
+        double cosLambda = FastMath.cos(lambda_rad);
+        double sinEpsilon = FastMath.sin(epsilon_rad);
+        double cosEpsilon = FastMath.cos(epsilon_rad);
+
+        // The declination is only needed through its sine and cosine
+        double sinDeclination = sinEpsilon * sinLambda;
+        double cosDeclination = Math.sqrt(1 - sinDeclination * sinDeclination);
+
+        double rightAscension = FastMath.atan2(cosEpsilon * sinLambda, cosLambda) * RADIANS_TO_DEGREES;
+        if (rightAscension < 0) rightAscension += 360;
+
+        double localSiderealTime = SolarCalculator.calculateLocalSiderealTime(daysPassedSinceJ2000Epoch, longitude);
+        double hourAngle_rad = SolarCalculator.calculateHourAngle(localSiderealTime, rightAscension);
+        double sinHourAngle = FastMath.sin(hourAngle_rad);
+        double cosHourAngle = FastMath.cos(hourAngle_rad);
+
+        double latitude_rad = latitude * DEGREES_TO_RADIANS;
+        double sinLatitude = FastMath.sin(latitude_rad);
+        double cosLatitude = FastMath.cos(latitude_rad);
+
+        double altitude_rad = FastMath.asin(sinLatitude * sinDeclination + cosLatitude * cosDeclination * cosHourAngle);
+        altitudeOut[index] = altitude_rad * RADIANS_TO_DEGREES;
+
+        double azimuth_rad = FastMath.atan2(-sinHourAngle, cosLatitude * sinDeclination / cosDeclination - sinLatitude * cosHourAngle);
+        azimuthOut[index] = (azimuth_rad * RADIANS_TO_DEGREES + 360) % 360;
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.example.sundial;
+
+/*
+Low-precision sun position from Spencer's (1971) Fourier series for the
+declination and the equation of time in terms of the fractional year.  One
+sin/cos pair covers all the harmonics (the higher multiples come from the
+angle-addition identities) and there is no ecliptic-to-equatorial conversion,
+so it costs about half the transcendental calls of the standard tier.
+Accurate to roughly 0.5 degrees.
+ */
+public final class FastSolarPosition implements SolarPositionAlgorithm {
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    @Override
+    public void calculate(double latitude, double longitude, long timeInMillis,
+                          double[] altitudeOut, double[] azimuthOut, int index) {
+
+        long epochDay = Math.floorDiv(timeInMillis, MILLIS_PER_DAY);
+        double minuteOfDay = (timeInMillis - epochDay * MILLIS_PER_DAY) / 60000.0;
+
+        // Fractional year in radians, 0 at the start of January 1st
+        int year = yearOf(epochDay);
+        long yearStart = SolarEventSolver.epochDay(year, 1, 1);
+        double daysInYear = SolarEventSolver.epochDay(year + 1, 1, 1) - yearStart;
+        double gamma = 2 * Math.PI / daysInYear * (epochDay - yearStart + (minuteOfDay / 60.0 - 12) / 24.0);
+
+        double sin1 = Math.sin(gamma);
+        double cos1 = Math.cos(gamma);
+        double sin2 = 2 * sin1 * cos1;
+        double cos2 = cos1 * cos1 - sin1 * sin1;
+        double sin3 = sin2 * cos1 + cos2 * sin1;
+        double cos3 = cos2 * cos1 - sin2 * sin1;
+
+        // Equation of time in minutes and declination in radians
+        double equationOfTime = 229.18 * (0.000075 + 0.001868 * cos1 - 0.032077 * sin1 - 0.014615 * cos2 - 0.040849 * sin2);
+        double declination = 0.006918 - 0.399912 * cos1 + 0.070257 * sin1 - 0.006758 * cos2 + 0.000907 * sin2
+                - 0.002697 * cos3 + 0.00148 * sin3;
+
+        // True solar time gives the hour angle directly, with no sidereal time or right ascension
+        double trueSolarTime = minuteOfDay + equationOfTime + 4 * longitude;
+        double hourAngle_rad = (trueSolarTime / 4 - 180) * DEGREES_TO_RADIANS;
+
+        double latitude_rad = latitude * DEGREES_TO_RADIANS;
+        double sinLatitude = Math.sin(latitude_rad);
+        double cosLatitude = Math.cos(latitude_rad);
+        double sinDeclination = Math.sin(declination);
+        double cosDeclination = Math.cos(declination);
+        double sinHourAngle = Math.sin(hourAngle_rad);
+        double cosHourAngle = Math.cos(hourAngle_rad);
+
+        altitudeOut[index] = Math.asin(sinLatitude * sinDeclination + cosLatitude * cosDeclination * cosHourAngle) * RADIANS_TO_DEGREES;
+
+        double azimuth_deg = Math.atan2(-sinHourAngle * cosDeclination,
+                cosLatitude * sinDeclination - sinLatitude * cosHourAngle * cosDeclination) * RADIANS_TO_DEGREES;
+        azimuthOut[index] = azimuth_deg < 0 ? azimuth_deg + 360 : azimuth_deg;
+
+    }
+
+    // Proleptic Gregorian year containing a day counted from 1970-01-01 (inverse of SolarEventSolver.epochDay)
+    static int yearOf(long epochDay) {
+
+        long days = epochDay + 719468;
+        long era = Math.floorDiv(days, 146097);
+        long dayOfEra = days - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153; // March = 0
+        long year = yearOfEra + era * 400;
+        return (int) (monthIndex >= 10 ? year + 1 : year);
+
+    }
+
+}
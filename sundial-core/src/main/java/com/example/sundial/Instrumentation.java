@@ -0,0 +1,241 @@
+package com.example.sundial;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+Low-overhead counters and latency histograms for the stages of the shadow
+pipeline.  Every call is counted; only every Nth call is timed, so the hot
+paths pay an atomic increment rather than formatting a log line.  An optional
+Tracer (android.os.Trace in the app) receives sections for the timed calls.
+
+Instrumentation is opt-in: ENABLED is true only when the
+sundial.instrumentation.enabled system property is set before the class is
+first used (the debug app sets it at startup).  It is a static final read once
+at class load, so the JIT folds it, and the release build's R8 rules pin it to
+false so every instrumentation call is stripped.  Usage:
+
+    long start = Instrumentation.begin(Instrumentation.Stage.ON_DRAW);
+    ...
+    Instrumentation.end(Instrumentation.Stage.ON_DRAW, start);
+ */
+public final class Instrumentation {
+
+    public static final boolean ENABLED = Boolean.getBoolean("sundial.instrumentation.enabled");
+
+    public enum Stage {
+
+        SOLAR_COMPUTE("Sundial.solarCompute"),
+        SHADOW_COMPUTE("Sundial.shadowCompute"),
+        ANIMATION_TICK("Sundial.animationTick"),
+        ON_DRAW("Sundial.onDraw");
+
+        final String traceName;
+
+        Stage(String traceName) {
+            this.traceName = traceName;
+        }
+
+    }
+
+    // Receives begin/end pairs for timed calls, on the calling thread
+    public interface Tracer {
+
+        void beginSection(String name);
+
+        void endSection();
+
+    }
+
+    // Returned by begin() for calls that are counted but not timed
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    // Bucket i holds latencies in [2^(i-1), 2^i) nanoseconds
+    private static final int BUCKETS = 64;
+
+    private static final StageStats[] STATS = new StageStats[Stage.values().length];
+
+    static {
+        for (int i = 0; i < STATS.length; i++) {
+            STATS[i] = new StageStats();
+        }
+    }
+
+    private static volatile Tracer tracer;
+    private static volatile long sampleMask = 7; // time one call in eight
+
+    private static final class StageStats {
+
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong samples = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    }
+
+    private Instrumentation() {
+    }
+
+    public static long begin(Stage stage) {
+
+        if (!ENABLED) return NOT_SAMPLED;
+
+        long call = STATS[stage.ordinal()].calls.getAndIncrement();
+        if ((call & sampleMask) != 0) return NOT_SAMPLED;
+
+        Tracer currentTracer = tracer;
+        if (currentTracer != null) currentTracer.beginSection(stage.traceName);
+        return System.nanoTime();
+
+    }
+
+    public static void end(Stage stage, long startNanos) {
+
+        if (!ENABLED || startNanos == NOT_SAMPLED) return;
+
+        long elapsed = System.nanoTime() - startNanos;
+
+        Tracer currentTracer = tracer;
+        if (currentTracer != null) currentTracer.endSection();
+
+        StageStats stats = STATS[stage.ordinal()];
+        stats.samples.incrementAndGet();
+        stats.totalNanos.addAndGet(elapsed);
+        stats.histogram.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(Math.max(elapsed, 0)));
+
+        long max = stats.maxNanos.get();
+        while (elapsed > max && !stats.maxNanos.compareAndSet(max, elapsed)) {
+            max = stats.maxNanos.get();
+        }
+
+    }
+
+    // Install before the instrumented stages run, so every begun section is ended on the same tracer
+    public static void setTracer(Tracer newTracer) {
+
+        tracer = newTracer;
+
+    }
+
+    // Time one call in every 'interval' (rounded up to a power of two); 1 times every call
+    public static void setSampleInterval(int interval) {
+
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1: " + interval);
+        }
+        sampleMask = roundUpToPowerOfTwo(interval) - 1;
+
+    }
+
+    private static long roundUpToPowerOfTwo(int value) {
+
+        return value <= 1 ? 1 : Long.highestOneBit(value - 1L) << 1;
+
+    }
+
+    public static void reset() {
+
+        for (StageStats stats : STATS) {
+            stats.calls.set(0);
+            stats.samples.set(0);
+            stats.totalNanos.set(0);
+            stats.maxNanos.set(0);
+            for (int i = 0; i < BUCKETS; i++) {
+                stats.histogram.set(i, 0);
+            }
+        }
+
+    }
+
+    public static Snapshot snapshot() {
+
+        return new Snapshot();
+
+    }
+
+    // Point-in-time copy of every stage's counters; reads are not atomic across stages
+    public static final class Snapshot {
+
+        private final long[] calls = new long[STATS.length];
+        private final long[] samples = new long[STATS.length];
+        private final long[] totalNanos = new long[STATS.length];
+        private final long[] maxNanos = new long[STATS.length];
+        private final long[][] histograms = new long[STATS.length][BUCKETS];
+
+        private Snapshot() {
+
+            for (int s = 0; s < STATS.length; s++) {
+                calls[s] = STATS[s].calls.get();
+                samples[s] = STATS[s].samples.get();
+                totalNanos[s] = STATS[s].totalNanos.get();
+                maxNanos[s] = STATS[s].maxNanos.get();
+                for (int i = 0; i < BUCKETS; i++) {
+                    histograms[s][i] = STATS[s].histogram.get(i);
+                }
+            }
+
+        }
+
+        public long getCalls(Stage stage) {
+
+            return calls[stage.ordinal()];
+
+        }
+
+        public long getSamples(Stage stage) {
+
+            return samples[stage.ordinal()];
+
+        }
+
+        public long getMeanNanos(Stage stage) {
+
+            int s = stage.ordinal();
+            return samples[s] == 0 ? 0 : totalNanos[s] / samples[s];
+
+        }
+
+        public long getMaxNanos(Stage stage) {
+
+            return maxNanos[stage.ordinal()];
+
+        }
+
+        // Upper bound of the histogram bucket containing the given percentile (0 - 100), in nanoseconds
+        public long getPercentileNanos(Stage stage, double percentile) {
+
+            int s = stage.ordinal();
+            long target = (long) Math.ceil(samples[s] * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histograms[s][i];
+                if (seen >= target && seen > 0) {
+                    return i >= 63 ? Long.MAX_VALUE : 1L << i;
+                }
+            }
+            return 0;
+
+        }
+
+        @Override
+        public String toString() {
+
+            StringBuilder builder = new StringBuilder("stage            calls   timed    mean_us   p50_us   p90_us   p99_us   max_us");
+            for (Stage stage : Stage.values()) {
+                builder.append('\n').append(String.format(Locale.US, "%-14s %7d %7d %10.1f %8.1f %8.1f %8.1f %8.1f",
+                        stage.name(), getCalls(stage), getSamples(stage),
+                        getMeanNanos(stage) / 1000.0,
+                        getPercentileNanos(stage, 50) / 1000.0,
+                        getPercentileNanos(stage, 90) / 1000.0,
+                        getPercentileNanos(stage, 99) / 1000.0,
+                        getMaxNanos(stage) / 1000.0));
+            }
+            return builder.toString();
+
+        }
+
+    }
+
+}
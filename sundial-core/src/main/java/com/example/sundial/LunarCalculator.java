@@ -0,0 +1,441 @@
+package com.example.sundial;
+
+/*
+Position, phase and rise/set of the moon for the Moondial mode, from the
+truncated ELP-2000/82 series in Meeus, Astronomical Algorithms ch. 47 (the
+larger terms of tables 47.A and 47.B), good to roughly 0.01 degrees in
+longitude and a few kilometres in distance.
+
+The periodic terms are integer combinations of four fundamental arguments
+(D, M, M', F), so their sines and cosines are built from precomputed multiples
+of those four angles with the angle-addition identities: each evaluation costs
+eight library trig calls for the arguments plus a few multiply-adds per term,
+rather than one sin or cos per term.
+
+Shares the time pipeline and primitive-array batch API of SolarCalculator.
+Altitude is topocentric (corrected for the moon's parallax, which reaches a
+degree) but not refracted.
+ */
+public class LunarCalculator {
+
+    private final double latitude;
+    private final double longitude;
+    private long timeInMillis;
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+    private static final long MILLIS_PER_HOUR = 3600000L;
+
+    private static final double EARTH_RADIUS_KM = 6378.14;
+    private static final double SUN_DISTANCE_KM = 149597870.7; // one AU; the sun's distance barely matters for the phase
+    private static final double MOON_RADIUS_RATIO = 0.272481;  // moon's radius in earth radii
+
+    // Standard refraction at the horizon, in degrees
+    private static final double HORIZON_REFRACTION = 0.5667;
+
+    // Rise and set are bracketed by scanning the day at this step, then refined to one second
+    private static final long SCAN_STEP_MILLIS = MILLIS_PER_HOUR;
+    private static final double TOLERANCE_MILLIS = 1000;
+
+    // Scratch buffers for one evaluation, so batches and the compute worker allocate nothing per instant.
+    // Not thread-safe; each thread keeps its own.
+    static final class Workspace {
+
+        final double[] coordinates = new double[3]; // declination (radians), right ascension (degrees), distance (km)
+        final double[] sinD = new double[5];
+        final double[] cosD = new double[5];
+        final double[] sinM = new double[5];
+        final double[] cosM = new double[5];
+        final double[] sinMp = new double[5];
+        final double[] cosMp = new double[5];
+        final double[] sinF = new double[5];
+        final double[] cosF = new double[5];
+
+    }
+
+    public LunarCalculator(double latitude, double longitude, long timeInMillis) {
+
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timeInMillis = timeInMillis;
+
+    }
+
+    public void setTimeInMillis(long timeInMillis) {
+
+        this.timeInMillis = timeInMillis;
+
+    }
+
+    public long getTimeInMillis() {
+
+        return timeInMillis;
+
+    }
+
+    // Topocentric altitude and azimuth of the moon's center in degrees, azimuth clockwise from North
+    public double[] calculateAltitudeAndAzimuth() {
+
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        calculateAltitudeAndAzimuth(timeInMillis, latitude, longitude, new Workspace(), altitude, azimuth, 0);
+        return new double[]{altitude[0], azimuth[0]};
+
+    }
+
+    // Many instants for one observer, written into the caller's arrays without allocating per instant
+    public static void calculateBatch(double latitude, double longitude, long[] timesInMillis,
+                                      double[] altitudeOut, double[] azimuthOut) {
+
+        if (altitudeOut.length < timesInMillis.length || azimuthOut.length < timesInMillis.length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the timestamp array");
+        }
+
+        Workspace workspace = new Workspace();
+        for (int i = 0; i < timesInMillis.length; i++) {
+            calculateAltitudeAndAzimuth(timesInMillis[i], latitude, longitude, workspace, altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    // Fraction of the moon's disk that is lit, 0 (new) to 1 (full)
+    public static double calculateIlluminatedFraction(long timeInMillis) {
+
+        return (1 + Math.cos(calculatePhaseAngle(timeInMillis))) / 2;
+
+    }
+
+    // True between new and full moon, when the lit limb faces west and the moon follows the sun across the sky
+    public static boolean isWaxing(long timeInMillis) {
+
+        Workspace workspace = new Workspace();
+        double[] moon = workspace.coordinates;
+        double[] sun = new double[3];
+        calculateEquatorialCoordinates(daysSinceJ2000(timeInMillis), workspace);
+        SolarCalculator.calculateEquatorialCoordinates(SolarCalculator.daysSinceJ2000(timeInMillis), sun);
+        return Math.sin((moon[1] - sun[1]) * DEGREES_TO_RADIANS) > 0;
+
+    }
+
+    public long calculateMoonrise(long dayStartMillis) {
+
+        return calculateHorizonCrossing(dayStartMillis, true);
+
+    }
+
+    public long calculateMoonset(long dayStartMillis) {
+
+        return calculateHorizonCrossing(dayStartMillis, false);
+
+    }
+
+    // First rise (or set) in the 24 hours from dayStartMillis, or SolarEventSolver.NO_EVENT.  The moon rises
+    // about 50 minutes later each day, so some days have no moonrise or no moonset at all.
+    private long calculateHorizonCrossing(long dayStartMillis, boolean rising) {
+
+        Workspace workspace = new Workspace();
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        RootFinder.Function aboveHorizon = offsetMillis -> {
+            calculateAltitudeAndAzimuth(dayStartMillis + Math.round(offsetMillis), latitude, longitude,
+                    workspace, altitude, azimuth, 0);
+            return altitude[0] - horizonAltitude(workspace.coordinates[2]);
+        };
+
+        double previous = aboveHorizon.value(0);
+        for (long offset = SCAN_STEP_MILLIS; offset <= 24 * MILLIS_PER_HOUR; offset += SCAN_STEP_MILLIS) {
+            double current = aboveHorizon.value(offset);
+            if (rising ? previous < 0 && current >= 0 : previous >= 0 && current < 0) {
+                double root = RootFinder.findRoot(aboveHorizon, offset - SCAN_STEP_MILLIS, previous, offset, current, TOLERANCE_MILLIS);
+                return dayStartMillis + Math.round(root);
+            }
+            previous = current;
+        }
+        return SolarEventSolver.NO_EVENT;
+
+    }
+
+    // Topocentric altitude of the moon's center when its upper limb touches the refracted horizon
+    private static double horizonAltitude(double distanceKm) {
+
+        return -(HORIZON_REFRACTION + Math.asin(MOON_RADIUS_RATIO * EARTH_RADIUS_KM / distanceKm) * RADIANS_TO_DEGREES);
+
+    }
+
+    // Leaves the moon's equatorial coordinates in workspace.coordinates
+    static void calculateAltitudeAndAzimuth(long timeInMillis, double latitude, double longitude, Workspace workspace,
+                                            double[] altitudeOut, double[] azimuthOut, int index) {
+
+        double[] terms = workspace.coordinates;
+        calculateEquatorialCoordinates(daysSinceJ2000(timeInMillis), workspace);
+
+        // Sidereal time runs on universal time, the lunar series on dynamical time
+        double localSiderealTime = SolarCalculator.calculateLocalSiderealTime(SolarCalculator.daysSinceJ2000(timeInMillis), longitude);
+        double hourAngle_rad = SolarCalculator.calculateHourAngle(localSiderealTime, terms[1]);
+
+        double latitude_rad = latitude * DEGREES_TO_RADIANS;
+        double sinLatitude = Math.sin(latitude_rad);
+        double cosLatitude = Math.cos(latitude_rad);
+        double sinDeclination = Math.sin(terms[0]);
+        double cosDeclination = Math.cos(terms[0]);
+        double cosHourAngle = Math.cos(hourAngle_rad);
+
+        double geocentricAltitude_rad = Math.asin(sinLatitude * sinDeclination + cosLatitude * cosDeclination * cosHourAngle);
+
+        // Parallax in altitude: the observer is one earth radius off the line to the earth's center
+        double parallax_rad = Math.asin(EARTH_RADIUS_KM / terms[2]);
+        double altitude_rad = geocentricAltitude_rad - parallax_rad * Math.cos(geocentricAltitude_rad);
+        altitudeOut[index] = altitude_rad * RADIANS_TO_DEGREES;
+
+        double azimuth_deg = Math.atan2(-Math.sin(hourAngle_rad) * cosDeclination,
+                cosLatitude * sinDeclination - sinLatitude * cosHourAngle * cosDeclination) * RADIANS_TO_DEGREES;
+        azimuthOut[index] = azimuth_deg < 0 ? azimuth_deg + 360 : azimuth_deg;
+
+    }
+
+    // Angle at the moon between the sun and the earth, in radians (Meeus ch. 48)
+    static double calculatePhaseAngle(long timeInMillis) {
+
+        Workspace workspace = new Workspace();
+        double[] moon = workspace.coordinates;
+        double[] sun = new double[3];
+        calculateEquatorialCoordinates(daysSinceJ2000(timeInMillis), workspace);
+        SolarCalculator.calculateEquatorialCoordinates(SolarCalculator.daysSinceJ2000(timeInMillis), sun);
+
+        double cosElongation = Math.sin(sun[0]) * Math.sin(moon[0])
+                + Math.cos(sun[0]) * Math.cos(moon[0]) * Math.cos((sun[1] - moon[1]) * DEGREES_TO_RADIANS);
+        double elongation = Math.acos(Math.max(-1, Math.min(1, cosElongation)));
+        return Math.atan2(SUN_DISTANCE_KM * Math.sin(elongation), moon[2] - SUN_DISTANCE_KM * Math.cos(elongation));
+
+    }
+
+    // Dynamical-time days since J2000 (universal time plus the estimated delta T)
+    private static double daysSinceJ2000(long timeInMillis) {
+
+        double days = SolarCalculator.daysSinceJ2000(timeInMillis);
+        return days + PreciseSolarPosition.estimateDeltaT(2000 + days / 365.25) / 86400.0;
+
+    }
+
+    // Into workspace.coordinates: declination (radians), right ascension (degrees), distance (km)
+    static void calculateEquatorialCoordinates(double daysPassedSinceJ2000Epoch, Workspace workspace) {
+
+        double[] out = workspace.coordinates;
+        double[] ecliptic = out; // reused: longitude (degrees), latitude (degrees), distance (km)
+        calculateEclipticCoordinates(daysPassedSinceJ2000Epoch, workspace, ecliptic);
+        double distance = ecliptic[2];
+
+        double julianCentury = daysPassedSinceJ2000Epoch / 36525.0;
+        double epsilon_rad = (23.439291 - 0.0130042 * julianCentury) * DEGREES_TO_RADIANS;
+        double lambda_rad = ecliptic[0] * DEGREES_TO_RADIANS;
+        double beta_rad = ecliptic[1] * DEGREES_TO_RADIANS;
+
+        double sinLambda = Math.sin(lambda_rad);
+        double rightAscension_deg = Math.atan2(sinLambda * Math.cos(epsilon_rad) - Math.tan(beta_rad) * Math.sin(epsilon_rad),
+                Math.cos(lambda_rad)) * RADIANS_TO_DEGREES;
+        out[0] = Math.asin(Math.sin(beta_rad) * Math.cos(epsilon_rad) + Math.cos(beta_rad) * Math.sin(epsilon_rad) * sinLambda);
+        out[1] = rightAscension_deg < 0 ? rightAscension_deg + 360 : rightAscension_deg;
+        out[2] = distance;
+
+    }
+
+    // Geocentric ecliptic coordinates of date: out[0] = longitude (degrees), out[1] = latitude (degrees),
+    // out[2] = distance from the earth's center (km).  Days are dynamical time since J2000.
+    static void calculateEclipticCoordinates(double daysPassedSinceJ2000Epoch, Workspace workspace, double[] out) {
+
+        double t = daysPassedSinceJ2000Epoch / 36525.0;
+
+        // Fundamental arguments (Meeus 47.1 - 47.5), degrees
+        double meanLongitude = 218.3164477 + t * (481267.88123421 + t * (-0.0015786 + t * (1.0 / 538841 - t / 65194000)));
+        double elongation = 297.8501921 + t * (445267.1114034 + t * (-0.0018819 + t * (1.0 / 545868 - t / 113065000)));
+        double sunAnomaly = 357.5291092 + t * (35999.0502909 + t * (-0.0001536 + t / 24490000));
+        double moonAnomaly = 134.9633964 + t * (477198.8675055 + t * (0.0087414 + t * (1.0 / 69699 - t / 14712000)));
+        double argumentOfLatitude = 93.2720950 + t * (483202.0175233 + t * (-0.0036539 + t * (-1.0 / 3526000 + t / 863310000)));
+
+        double a1 = (119.75 + 131.849 * t) * DEGREES_TO_RADIANS;  // Venus
+        double a2 = (53.09 + 479264.290 * t) * DEGREES_TO_RADIANS; // Jupiter
+        double a3 = (313.45 + 481266.484 * t) * DEGREES_TO_RADIANS;
+
+        // Terms with the sun's anomaly shrink with the earth's orbital eccentricity
+        double eccentricity = 1 - t * (0.002516 + 0.0000074 * t);
+        double eccentricitySquared = eccentricity * eccentricity;
+
+        // sin/cos of k * argument for k = 0..4, from one library call per argument
+        double[] sinD = workspace.sinD;
+        double[] cosD = workspace.cosD;
+        double[] sinM = workspace.sinM;
+        double[] cosM = workspace.cosM;
+        double[] sinMp = workspace.sinMp;
+        double[] cosMp = workspace.cosMp;
+        double[] sinF = workspace.sinF;
+        double[] cosF = workspace.cosF;
+        multiples(elongation * DEGREES_TO_RADIANS, sinD, cosD);
+        multiples(sunAnomaly * DEGREES_TO_RADIANS, sinM, cosM);
+        multiples(moonAnomaly * DEGREES_TO_RADIANS, sinMp, cosMp);
+        multiples(argumentOfLatitude * DEGREES_TO_RADIANS, sinF, cosF);
+
+        double sumLongitude = 0;
+        double sumDistance = 0;
+        for (int i = 0; i < LONGITUDE_ARGUMENTS.length; i += 4) {
+            int d = LONGITUDE_ARGUMENTS[i];
+            int m = LONGITUDE_ARGUMENTS[i + 1];
+            int mp = LONGITUDE_ARGUMENTS[i + 2];
+            int f = LONGITUDE_ARGUMENTS[i + 3];
+
+            // sin and cos of (dD + mM + m'M' + fF) by angle addition
+            double s = sign(d) * sinD[abs(d)];
+            double c = cosD[abs(d)];
+            double sm = sign(m) * sinM[abs(m)];
+            double cm = cosM[abs(m)];
+            double s2 = s * cm + c * sm;
+            double c2 = c * cm - s * sm;
+            double smp = sign(mp) * sinMp[abs(mp)];
+            double cmp = cosMp[abs(mp)];
+            double s3 = s2 * cmp + c2 * smp;
+            double c3 = c2 * cmp - s2 * smp;
+            double sf = sign(f) * sinF[abs(f)];
+            double cf = cosF[abs(f)];
+            double sinArgument = s3 * cf + c3 * sf;
+            double cosArgument = c3 * cf - s3 * sf;
+
+            double factor = m == 0 ? 1 : (m == 1 || m == -1) ? eccentricity : eccentricitySquared;
+            int term = i / 4;
+            sumLongitude += LONGITUDE_COEFFICIENTS[term] * factor * sinArgument;
+            sumDistance += DISTANCE_COEFFICIENTS[term] * factor * cosArgument;
+        }
+
+        double sumLatitude = 0;
+        for (int i = 0; i < LATITUDE_ARGUMENTS.length; i += 4) {
+            int d = LATITUDE_ARGUMENTS[i];
+            int m = LATITUDE_ARGUMENTS[i + 1];
+            int mp = LATITUDE_ARGUMENTS[i + 2];
+            int f = LATITUDE_ARGUMENTS[i + 3];
+
+            double s = sign(d) * sinD[abs(d)];
+            double c = cosD[abs(d)];
+            double sm = sign(m) * sinM[abs(m)];
+            double cm = cosM[abs(m)];
+            double s2 = s * cm + c * sm;
+            double c2 = c * cm - s * sm;
+            double smp = sign(mp) * sinMp[abs(mp)];
+            double cmp = cosMp[abs(mp)];
+            double s3 = s2 * cmp + c2 * smp;
+            double c3 = c2 * cmp - s2 * smp;
+            double sf = sign(f) * sinF[abs(f)];
+            double cf = cosF[abs(f)];
+            double sinArgument = s3 * cf + c3 * sf;
+
+            double factor = m == 0 ? 1 : (m == 1 || m == -1) ? eccentricity : eccentricitySquared;
+            sumLatitude += LATITUDE_COEFFICIENTS[i / 4] * factor * sinArgument;
+        }
+
+        // Additive terms for Venus, Jupiter and the earth's flattening (Meeus p. 338)
+        double meanLongitude_rad = meanLongitude * DEGREES_TO_RADIANS;
+        double argumentOfLatitude_rad = argumentOfLatitude * DEGREES_TO_RADIANS;
+        sumLongitude += 3958 * Math.sin(a1) + 1962 * Math.sin(meanLongitude_rad - argumentOfLatitude_rad) + 318 * Math.sin(a2);
+        sumLatitude += -2235 * Math.sin(meanLongitude_rad) + 382 * Math.sin(a3)
+                + 175 * Math.sin(a1 - argumentOfLatitude_rad) + 175 * Math.sin(a1 + argumentOfLatitude_rad)
+                + 127 * Math.sin(meanLongitude_rad - moonAnomaly * DEGREES_TO_RADIANS)
+                - 115 * Math.sin(meanLongitude_rad + moonAnomaly * DEGREES_TO_RADIANS);
+
+        double longitude_deg = (meanLongitude + sumLongitude / 1e6) % 360;
+        out[0] = longitude_deg < 0 ? longitude_deg + 360 : longitude_deg;
+        out[1] = sumLatitude / 1e6;
+        out[2] = 385000.56 + sumDistance / 1000;
+
+    }
+
+    private static void multiples(double angle, double[] sines, double[] cosines) {
+
+        double sin = Math.sin(angle);
+        double cos = Math.cos(angle);
+        sines[0] = 0;
+        cosines[0] = 1;
+        for (int k = 1; k < sines.length; k++) {
+            sines[k] = sines[k - 1] * cos + cosines[k - 1] * sin;
+            cosines[k] = cosines[k - 1] * cos - sines[k - 1] * sin;
+        }
+
+    }
+
+    private static int abs(int k) {
+
+        return k < 0 ? -k : k;
+
+    }
+
+    private static double sign(int k) {
+
+        return k < 0 ? -1 : 1;
+
+    }
+
+    // Meeus table 47.A: multiples of D, M, M', F for each term of the longitude and distance series
+    private static final int[] LONGITUDE_ARGUMENTS = {
+            0, 0, 1, 0,   2, 0, -1, 0,   2, 0, 0, 0,   0, 0, 2, 0,   0, 1, 0, 0,
+            0, 0, 0, 2,   2, 0, -2, 0,   2, -1, -1, 0, 2, 0, 1, 0,   2, -1, 0, 0,
+            0, 1, -1, 0,  1, 0, 0, 0,    0, 1, 1, 0,   2, 0, 0, -2,  0, 0, 1, 2,
+            0, 0, 1, -2,  4, 0, -1, 0,   0, 0, 3, 0,   4, 0, -2, 0,  2, 1, -1, 0,
+            2, 1, 0, 0,   1, 0, -1, 0,   1, 1, 0, 0,   2, -1, 1, 0,  2, 0, 2, 0,
+            4, 0, 0, 0,   2, 0, -3, 0,   0, 1, -2, 0,  2, 0, -1, 2,  2, -1, -2, 0,
+            1, 0, 1, 0,   2, -2, 0, 0,   0, 1, 2, 0,   0, 2, 0, 0,   2, -2, -1, 0,
+            2, 0, 1, -2,  2, 0, 0, 2,    4, -1, -1, 0, 0, 0, 2, 2,   3, 0, -1, 0,
+            2, 1, 1, 0,   4, -1, -2, 0,  0, 2, -1, 0,  2, 2, -1, 0,  2, 1, -2, 0,
+            2, -1, 0, -2, 4, 0, 1, 0,    0, 0, 4, 0,   4, -1, 0, 0,  1, 0, -2, 0,
+            2, 1, 0, -2,  0, 0, 2, -2,   1, 1, 1, 0,   3, 0, -2, 0,  4, 0, -3, 0,
+            2, -1, 2, 0,  0, 2, 1, 0,    1, 1, -1, 0,  2, 0, 3, 0,   2, 0, -1, -2
+    };
+
+    // Sine coefficients for longitude, 1e-6 degrees
+    private static final double[] LONGITUDE_COEFFICIENTS = {
+            6288774, 1274027, 658314, 213618, -185116,
+            -114332, 58793, 57066, 53322, 45758,
+            -40923, -34720, -30383, 15327, -12528,
+            10980, 10675, 10034, 8548, -7888,
+            -6766, -5163, 4987, 4036, 3994,
+            3861, 3665, -2689, -2602, 2390,
+            -2348, 2236, -2120, -2069, 2048,
+            -1773, -1595, 1215, -1110, -892,
+            -810, 759, -713, -700, 691,
+            596, 549, 537, 520, -487,
+            -399, -381, 351, -340, 330,
+            327, -323, 299, 294, 0
+    };
+
+    // Cosine coefficients for distance, 0.001 km
+    private static final double[] DISTANCE_COEFFICIENTS = {
+            -20905355, -3699111, -2955968, -569925, 48888,
+            -3149, 246158, -152138, -170733, -204586,
+            -129620, 108743, 104755, 10321, 0,
+            79661, -34782, -23210, -21636, 24208,
+            30824, -8379, -16675, -12831, -10445,
+            -11650, 14403, -7003, 0, 10056,
+            6322, -9884, 5751, 0, -4950,
+            4130, 0, -3958, 0, 3258,
+            2616, -1897, -2117, 2354, 0,
+            0, -1423, -1117, -1571, -1739,
+            0, -4421, 0, 0, 0,
+            0, 1165, 0, 0, 8752
+    };
+
+    // Meeus table 47.B: multiples of D, M, M', F for each term of the latitude series
+    private static final int[] LATITUDE_ARGUMENTS = {
+            0, 0, 0, 1,   0, 0, 1, 1,   0, 0, 1, -1,  2, 0, 0, -1,  2, 0, -1, 1,
+            2, 0, -1, -1, 2, 0, 0, 1,   0, 0, 2, 1,   2, 0, 1, -1,  0, 0, 2, -1,
+            2, -1, 0, -1, 2, 0, -2, -1, 2, 0, 1, 1,   2, 1, 0, -1,  2, -1, -1, 1,
+            2, -1, 0, 1,  2, -1, -1, -1, 0, 1, -1, -1, 4, 0, -1, -1, 0, 1, 0, 1,
+            0, 0, 0, 3,   0, 1, -1, 1,  1, 0, 0, 1,   0, 1, 1, 1,   0, 1, 1, -1,
+            0, 1, 0, -1,  1, 0, 0, -1,  0, 0, 3, 1,   4, 0, 0, -1,  4, 0, -1, 1
+    };
+
+    // Sine coefficients for latitude, 1e-6 degrees
+    private static final double[] LATITUDE_COEFFICIENTS = {
+            5128122, 280602, 277693, 173237, 55413,
+            46271, 32573, 17198, 9266, 8822,
+            8216, 4324, 4200, -3359, 2463,
+            2211, 2065, -1870, 1828, -1794,
+            -1749, -1565, -1491, -1475, -1410,
+            -1344, -1335, 1107, 1021, 833
+    };
+
+}
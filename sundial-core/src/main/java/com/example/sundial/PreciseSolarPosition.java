@@ -0,0 +1,353 @@
+package com.example.sundial;
+
+/*
+High-precision sun position following NREL's Solar Position Algorithm
+(Reda & Andreas, 2004) and Meeus, Astronomical Algorithms ch. 22, 25 and 32:
+
+    - the earth's heliocentric longitude, latitude and radius from the
+      abridged VSOP87 series in Meeus appendix III (the tables SPA uses);
+    - nutation in longitude and obliquity from the largest terms of the
+      IAU 1980 series (the dropped terms are each under 0.002");
+    - the obliquity polynomial of Laskar, aberration, apparent sidereal time;
+    - topocentric parallax for the observer's elevation;
+    - atmospheric refraction from pressure and temperature.
+
+Times are converted from UT to terrestrial time with delta T, either fixed at
+construction or estimated from the Espenak & Meeus polynomials.  Accuracy is
+about 0.0003 degrees between 2000 BCE and 6000 CE, limited mostly by delta T.
+
+Returns the apparent (refracted) altitude; pass a pressure of 0 for the
+geometric altitude.
+ */
+public final class PreciseSolarPosition implements SolarPositionAlgorithm {
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+    private static final double JULIAN_DAY_J2000 = 2451545.0;
+    private static final double EARTH_RADIUS_METERS = 6378140.0;
+
+    // Sun's angular radius plus refraction at the horizon: below this the sun is not visible and no refraction applies
+    private static final double REFRACTION_CUTOFF_DEGREES = -(0.26667 + 0.5667);
+
+    // Standard atmosphere at sea level
+    public static final double DEFAULT_PRESSURE_MILLIBARS = 1013.25;
+    public static final double DEFAULT_TEMPERATURE_CELSIUS = 12;
+
+    private final double elevationMeters;
+    private final double pressureMillibars;
+    private final double temperatureCelsius;
+    private final double deltaTSeconds; // NaN: estimate from the date
+
+    public PreciseSolarPosition() {
+
+        this(0, DEFAULT_PRESSURE_MILLIBARS, DEFAULT_TEMPERATURE_CELSIUS, Double.NaN);
+
+    }
+
+    // deltaTSeconds is TT - UT; pass Double.NaN to estimate it from the date
+    public PreciseSolarPosition(double elevationMeters, double pressureMillibars, double temperatureCelsius,
+                                double deltaTSeconds) {
+
+        if (pressureMillibars < 0 || temperatureCelsius <= -273) {
+            throw new IllegalArgumentException("Pressure must be non-negative and temperature above absolute zero");
+        }
+        this.elevationMeters = elevationMeters;
+        this.pressureMillibars = pressureMillibars;
+        this.temperatureCelsius = temperatureCelsius;
+        this.deltaTSeconds = deltaTSeconds;
+
+    }
+
+    @Override
+    public void calculate(double latitude, double longitude, long timeInMillis,
+                          double[] altitudeOut, double[] azimuthOut, int index) {
+
+        double julianDay = SolarCalculator.calculateJulianDate(timeInMillis);
+        double deltaT = Double.isNaN(deltaTSeconds) ? estimateDeltaT(2000 + (julianDay - JULIAN_DAY_J2000) / 365.25) : deltaTSeconds;
+        double julianEphemerisDay = julianDay + deltaT / 86400.0;
+
+        double julianCentury = (julianDay - JULIAN_DAY_J2000) / 36525.0;
+        double julianEphemerisCentury = (julianEphemerisDay - JULIAN_DAY_J2000) / 36525.0;
+        double julianEphemerisMillennium = julianEphemerisCentury / 10.0;
+
+        // Earth's heliocentric position, turned around to the sun's geocentric position
+        double earthLongitude = normalizeDegrees(evaluateSeries(EARTH_LONGITUDE, julianEphemerisMillennium) * RADIANS_TO_DEGREES);
+        double earthLatitude = evaluateSeries(EARTH_LATITUDE, julianEphemerisMillennium) * RADIANS_TO_DEGREES;
+        double radius = evaluateSeries(EARTH_RADIUS, julianEphemerisMillennium); // AU
+
+        double geocentricLongitude = normalizeDegrees(earthLongitude + 180);
+        double geocentricLatitude = -earthLatitude;
+
+        // Nutation (degrees) and the true obliquity of the ecliptic
+        double t = julianEphemerisCentury;
+        double meanElongationMoon = 297.85036 + t * (445267.111480 + t * (-0.0019142 + t / 189474.0));
+        double meanAnomalySun = 357.52772 + t * (35999.050340 + t * (-0.0001603 - t / 300000.0));
+        double meanAnomalyMoon = 134.96298 + t * (477198.867398 + t * (0.0086972 + t / 56250.0));
+        double argumentOfLatitudeMoon = 93.27191 + t * (483202.017538 + t * (-0.0036825 + t / 327270.0));
+        double ascendingNodeMoon = 125.04452 + t * (-1934.136261 + t * (0.0020708 + t / 450000.0));
+
+        double longitudeSum = 0;
+        double obliquitySum = 0;
+        for (double[] term : NUTATION) {
+            double argument = (term[0] * meanElongationMoon + term[1] * meanAnomalySun + term[2] * meanAnomalyMoon
+                    + term[3] * argumentOfLatitudeMoon + term[4] * ascendingNodeMoon) * DEGREES_TO_RADIANS;
+            longitudeSum += (term[5] + term[6] * t) * Math.sin(argument);
+            obliquitySum += (term[7] + term[8] * t) * Math.cos(argument);
+        }
+
+        // Coefficients are in units of 0.0001 arcseconds
+        double nutationLongitude = longitudeSum / 36000000.0;
+        double obliquity = meanObliquity(julianEphemerisMillennium / 10.0) / 3600.0 + obliquitySum / 36000000.0;
+
+        double aberration = -20.4898 / (3600.0 * radius);
+        double apparentLongitude = geocentricLongitude + nutationLongitude + aberration;
+
+        // Apparent sidereal time at Greenwich
+        double meanSiderealTime = normalizeDegrees(280.46061837 + 360.98564736629 * (julianDay - JULIAN_DAY_J2000)
+                + julianCentury * julianCentury * (0.000387933 - julianCentury / 38710000.0));
+        double siderealTime = meanSiderealTime + nutationLongitude * Math.cos(obliquity * DEGREES_TO_RADIANS);
+
+        // Geocentric right ascension and declination
+        double lambda_rad = apparentLongitude * DEGREES_TO_RADIANS;
+        double epsilon_rad = obliquity * DEGREES_TO_RADIANS;
+        double beta_rad = geocentricLatitude * DEGREES_TO_RADIANS;
+        double rightAscension = normalizeDegrees(Math.atan2(
+                Math.sin(lambda_rad) * Math.cos(epsilon_rad) - Math.tan(beta_rad) * Math.sin(epsilon_rad),
+                Math.cos(lambda_rad)) * RADIANS_TO_DEGREES);
+        double declination_rad = Math.asin(Math.sin(beta_rad) * Math.cos(epsilon_rad)
+                + Math.cos(beta_rad) * Math.sin(epsilon_rad) * Math.sin(lambda_rad));
+
+        double hourAngle_rad = normalizeDegrees(siderealTime + longitude - rightAscension) * DEGREES_TO_RADIANS;
+
+        // Topocentric parallax: the observer sits up to one earth radius off the line to the earth's center
+        double latitude_rad = latitude * DEGREES_TO_RADIANS;
+        double parallax_rad = 8.794 / (3600.0 * radius) * DEGREES_TO_RADIANS;
+        double u = Math.atan(0.99664719 * Math.tan(latitude_rad));
+        double x = Math.cos(u) + elevationMeters / EARTH_RADIUS_METERS * Math.cos(latitude_rad);
+        double y = 0.99664719 * Math.sin(u) + elevationMeters / EARTH_RADIUS_METERS * Math.sin(latitude_rad);
+
+        double sinParallax = Math.sin(parallax_rad);
+        double cosDeclination = Math.cos(declination_rad);
+        double denominator = cosDeclination - x * sinParallax * Math.cos(hourAngle_rad);
+        double parallaxInRightAscension = Math.atan2(-x * sinParallax * Math.sin(hourAngle_rad), denominator);
+        double topocentricDeclination = Math.atan2(
+                (Math.sin(declination_rad) - y * sinParallax) * Math.cos(parallaxInRightAscension), denominator);
+        double topocentricHourAngle = hourAngle_rad - parallaxInRightAscension;
+
+        // Horizontal coordinates
+        double sinLatitude = Math.sin(latitude_rad);
+        double cosLatitude = Math.cos(latitude_rad);
+        double elevation = Math.asin(sinLatitude * Math.sin(topocentricDeclination)
+                + cosLatitude * Math.cos(topocentricDeclination) * Math.cos(topocentricHourAngle)) * RADIANS_TO_DEGREES;
+        altitudeOut[index] = elevation + refraction(elevation);
+
+        // SPA's astronomers' azimuth is measured westward from South; shift it to clockwise from North
+        double azimuth = Math.atan2(Math.sin(topocentricHourAngle),
+                Math.cos(topocentricHourAngle) * sinLatitude - Math.tan(topocentricDeclination) * cosLatitude) * RADIANS_TO_DEGREES;
+        azimuthOut[index] = normalizeDegrees(azimuth + 180);
+
+    }
+
+    // Bennett's refraction formula as used by SPA, in degrees, for an airless elevation in degrees
+    private double refraction(double elevation) {
+
+        if (pressureMillibars == 0 || elevation < REFRACTION_CUTOFF_DEGREES) return 0;
+        return pressureMillibars / 1010.0 * 283.0 / (273.0 + temperatureCelsius)
+                * 1.02 / (60.0 * Math.tan((elevation + 10.3 / (elevation + 5.11)) * DEGREES_TO_RADIANS));
+
+    }
+
+    // Estimated TT - UT in seconds for a decimal year (Espenak & Meeus, Five Millennium Canon of Solar Eclipses)
+    static double estimateDeltaT(double year) {
+
+        double t = year - 2000;
+        if (year >= 1986 && year < 2005) {
+            return 63.86 + t * (0.3345 + t * (-0.060374 + t * (0.0017275 + t * (0.000651814 + t * 0.00002373599))));
+        }
+        if (year >= 2005 && year < 2050) {
+            return 62.92 + t * (0.32217 + t * 0.005589);
+        }
+        double u = (year - 1820) / 100;
+        if (year >= 2050 && year < 2150) {
+            return -20 + 32 * u * u - 0.5628 * (2150 - year);
+        }
+        // Long-term parabola outside the fitted ranges
+        return -20 + 32 * u * u;
+
+    }
+
+    // Mean obliquity of the ecliptic in arcseconds (Laskar); u is Julian ephemeris millennia / 10 from J2000
+    private static double meanObliquity(double u) {
+
+        return 84381.448 + u * (-4680.93 + u * (-1.55 + u * (1999.25 + u * (-51.38 + u * (-249.67
+                + u * (-39.05 + u * (7.12 + u * (27.87 + u * (5.79 + u * 2.45)))))))));
+
+    }
+
+    // Sum over powers of tau of sum(A cos(B + C tau)), scaled by 1e-8
+    private static double evaluateSeries(double[][][] series, double tau) {
+
+        double result = 0;
+        double power = 1;
+        for (double[][] terms : series) {
+            double sum = 0;
+            for (double[] term : terms) {
+                sum += term[0] * Math.cos(term[1] + term[2] * tau);
+            }
+            result += sum * power;
+            power *= tau;
+        }
+        return result / 1e8;
+
+    }
+
+    private static double normalizeDegrees(double degrees) {
+
+        double normalized = degrees % 360;
+        return normalized < 0 ? normalized + 360 : normalized;
+
+    }
+
+    // Abridged VSOP87 for the earth (Meeus appendix III): {A, B, C} per term, one block per power of tau
+    private static final double[][][] EARTH_LONGITUDE = {
+            {
+                    {175347046, 0, 0}, {3341656, 4.6692568, 6283.07585}, {34894, 4.6261, 12566.1517},
+                    {3497, 2.7441, 5753.3849}, {3418, 2.8289, 3.5231}, {3136, 3.6277, 77713.7715},
+                    {2676, 4.4181, 7860.4194}, {2343, 6.1352, 3930.2097}, {1324, 0.7425, 11506.7698},
+                    {1273, 2.0371, 529.691}, {1199, 1.1096, 1577.3435}, {990, 5.233, 5884.927},
+                    {902, 2.045, 26.298}, {857, 3.508, 398.149}, {780, 1.179, 5223.694},
+                    {753, 2.533, 5507.553}, {505, 4.583, 18849.228}, {492, 4.205, 775.523},
+                    {357, 2.92, 0.067}, {317, 5.849, 11790.629}, {284, 1.899, 796.298},
+                    {271, 0.315, 10977.079}, {243, 0.345, 5486.778}, {206, 4.806, 2544.314},
+                    {205, 1.869, 5573.143}, {202, 2.458, 6069.777}, {156, 0.833, 213.299},
+                    {132, 3.411, 2942.463}, {126, 1.083, 20.775}, {115, 0.645, 0.98},
+                    {103, 0.636, 4694.003}, {102, 0.976, 15720.839}, {102, 4.267, 7.114},
+                    {99, 6.21, 2146.17}, {98, 0.68, 155.42}, {86, 5.98, 161000.69},
+                    {85, 1.3, 6275.96}, {85, 3.67, 71430.7}, {80, 1.81, 17260.15},
+                    {79, 3.04, 12036.46}, {75, 1.76, 5088.63}, {74, 3.5, 3154.69},
+                    {74, 4.68, 801.82}, {70, 0.83, 9437.76}, {62, 3.98, 8827.39},
+                    {61, 1.82, 7084.9}, {57, 2.78, 6286.6}, {56, 4.39, 14143.5},
+                    {56, 3.47, 6279.55}, {52, 0.19, 12139.55}, {52, 1.33, 1748.02},
+                    {51, 0.28, 5856.48}, {49, 0.49, 1194.45}, {41, 5.37, 8429.24},
+                    {41, 2.4, 19651.05}, {39, 6.17, 10447.39}, {37, 6.04, 10213.29},
+                    {37, 2.57, 1059.38}, {36, 1.71, 2352.87}, {36, 1.78, 6812.77},
+                    {33, 0.59, 17789.85}, {30, 0.44, 83996.85}, {30, 2.74, 1349.87},
+                    {25, 3.16, 4690.48}
+            },
+            {
+                    {628331966747.0, 0, 0}, {206059, 2.678235, 6283.07585}, {4303, 2.6351, 12566.1517},
+                    {425, 1.59, 3.523}, {119, 5.796, 26.298}, {109, 2.966, 1577.344},
+                    {93, 2.59, 18849.23}, {72, 1.14, 529.69}, {68, 1.87, 398.15},
+                    {67, 4.41, 5507.55}, {59, 2.89, 5223.69}, {56, 2.17, 155.42},
+                    {45, 0.4, 796.3}, {36, 0.47, 775.52}, {29, 2.65, 7.11},
+                    {21, 5.34, 0.98}, {19, 1.85, 5486.78}, {19, 4.97, 213.3},
+                    {17, 2.99, 6275.96}, {16, 0.03, 2544.31}, {16, 1.43, 2146.17},
+                    {15, 1.21, 10977.08}, {12, 2.83, 1748.02}, {12, 3.26, 5088.63},
+                    {12, 5.27, 1194.45}, {12, 2.08, 4694}, {11, 0.77, 553.57},
+                    {10, 1.3, 6286.6}, {10, 4.24, 1349.87}, {9, 2.7, 242.73},
+                    {9, 5.64, 951.72}, {8, 5.3, 2352.87}, {6, 2.65, 9437.76},
+                    {6, 4.67, 4690.48}
+            },
+            {
+                    {52919, 0, 0}, {8720, 1.0721, 6283.0758}, {309, 0.867, 12566.152},
+                    {27, 0.05, 3.52}, {16, 5.19, 26.3}, {16, 3.68, 155.42},
+                    {10, 0.76, 18849.23}, {9, 2.06, 77713.77}, {7, 0.83, 775.52},
+                    {5, 4.66, 1577.34}, {4, 1.03, 7.11}, {4, 3.44, 5573.14},
+                    {3, 5.14, 796.3}, {3, 6.05, 5507.55}, {3, 1.19, 242.73},
+                    {3, 6.12, 529.69}, {3, 0.31, 398.15}, {3, 2.28, 553.57},
+                    {2, 4.38, 5223.69}, {2, 3.75, 0.98}
+            },
+            {
+                    {289, 5.844, 6283.076}, {35, 0, 0}, {17, 5.49, 12566.15},
+                    {3, 5.2, 155.42}, {1, 4.72, 3.52}, {1, 5.3, 18849.23},
+                    {1, 5.97, 242.73}
+            },
+            {
+                    {114, 3.142, 0}, {8, 4.13, 6283.08}, {1, 3.84, 12566.15}
+            },
+            {
+                    {1, 3.14, 0}
+            }
+    };
+
+    private static final double[][][] EARTH_LATITUDE = {
+            {
+                    {280, 3.199, 84334.662}, {102, 5.422, 5507.553}, {80, 3.88, 5223.69},
+                    {44, 3.7, 2352.87}, {32, 4, 1577.34}
+            },
+            {
+                    {9, 3.9, 5507.55}, {6, 1.73, 5223.69}
+            }
+    };
+
+    private static final double[][][] EARTH_RADIUS = {
+            {
+                    {100013989, 0, 0}, {1670700, 3.0984635, 6283.07585}, {13956, 3.05525, 12566.1517},
+                    {3084, 5.1985, 77713.7715}, {1628, 1.1739, 5753.3849}, {1576, 2.8469, 7860.4194},
+                    {925, 5.453, 11506.77}, {542, 4.564, 3930.21}, {472, 3.661, 5884.927},
+                    {346, 0.964, 5507.553}, {329, 5.9, 5223.694}, {307, 0.299, 5573.143},
+                    {243, 4.273, 11790.629}, {212, 5.847, 1577.344}, {186, 5.022, 10977.079},
+                    {175, 3.012, 18849.228}, {110, 5.055, 5486.778}, {98, 0.89, 6069.78},
+                    {86, 5.69, 15720.84}, {86, 1.27, 161000.69}, {65, 0.27, 17260.15},
+                    {63, 0.92, 529.69}, {57, 2.01, 83996.85}, {56, 5.24, 71430.7},
+                    {49, 3.25, 2544.31}, {47, 2.58, 775.52}, {45, 5.54, 9437.76},
+                    {43, 6.01, 6275.96}, {39, 5.36, 4694}, {38, 2.39, 8827.39},
+                    {37, 0.83, 19651.05}, {37, 4.9, 12139.55}, {36, 1.67, 12036.46},
+                    {35, 1.84, 2942.46}, {33, 0.24, 7084.9}, {32, 0.18, 5088.63},
+                    {32, 1.78, 398.15}, {28, 1.21, 6286.6}, {28, 1.9, 6279.55},
+                    {26, 4.59, 10447.39}
+            },
+            {
+                    {103019, 1.10749, 6283.07585}, {1721, 1.0644, 12566.1517}, {702, 3.142, 0},
+                    {32, 1.02, 18849.23}, {31, 2.84, 5507.55}, {25, 1.32, 5223.69},
+                    {18, 1.42, 1577.34}, {10, 5.91, 10977.08}, {9, 1.42, 6275.96},
+                    {9, 0.27, 5486.78}
+            },
+            {
+                    {4359, 5.7846, 6283.0758}, {124, 5.579, 12566.152}, {12, 3.14, 0},
+                    {9, 3.63, 77713.77}, {6, 1.87, 5573.14}, {3, 5.47, 18849.23}
+            },
+            {
+                    {145, 4.273, 6283.076}, {7, 3.92, 12566.15}
+            },
+            {
+                    {4, 2.56, 6283.08}
+            }
+    };
+
+    // Largest terms of the IAU 1980 nutation series (Meeus table 22.A): multiples of D, M, M', F and the node,
+    // then the longitude coefficient and its rate, then the obliquity coefficient and its rate (0.0001")
+    private static final double[][] NUTATION = {
+            {0, 0, 0, 0, 1, -171996, -174.2, 92025, 8.9},
+            {-2, 0, 0, 2, 2, -13187, -1.6, 5736, -3.1},
+            {0, 0, 0, 2, 2, -2274, -0.2, 977, -0.5},
+            {0, 0, 0, 0, 2, 2062, 0.2, -895, 0.5},
+            {0, 1, 0, 0, 0, 1426, -3.4, 54, -0.1},
+            {0, 0, 1, 0, 0, 712, 0.1, -7, 0},
+            {-2, 1, 0, 2, 2, -517, 1.2, 224, -0.6},
+            {0, 0, 0, 2, 1, -386, -0.4, 200, 0},
+            {0, 0, 1, 2, 2, -301, 0, 129, -0.1},
+            {-2, -1, 0, 2, 2, 217, -0.5, -95, 0.3},
+            {-2, 0, 1, 0, 0, -158, 0, 0, 0},
+            {-2, 0, 0, 2, 1, 129, 0.1, -70, 0},
+            {0, 0, -1, 2, 2, 123, 0, -53, 0},
+            {2, 0, 0, 0, 0, 63, 0, 0, 0},
+            {0, 0, 1, 0, 1, 63, 0.1, -33, 0},
+            {2, 0, -1, 2, 2, -59, 0, 26, 0},
+            {0, 0, -1, 0, 1, -58, -0.1, 32, 0},
+            {0, 0, 1, 2, 1, -51, 0, 27, 0},
+            {-2, 0, 2, 0, 0, 48, 0, 0, 0},
+            {0, 0, -2, 2, 1, 46, 0, -24, 0},
+            {2, 0, 0, 2, 2, -38, 0, 16, 0},
+            {0, 0, 2, 2, 2, -31, 0, 13, 0},
+            {0, 0, 2, 0, 0, 29, 0, 0, 0},
+            {-2, 0, 1, 2, 2, 29, 0, -12, 0},
+            {0, 0, 0, 2, 0, 26, 0, 0, 0},
+            {-2, 0, 0, 2, 0, -22, 0, 0, 0},
+            {0, 0, -1, 2, 1, 21, 0, -10, 0},
+            {0, 2, 0, 0, 0, 17, -0.1, 0, 0},
+            {2, 0, -1, 0, 1, 16, 0, -8, 0},
+            {-2, 2, 0, 2, 2, -16, 0.1, 7, 0}
+    };
+
+}
@@ -0,0 +1,106 @@
+package com.example.sundial;
+
+/*
+Brent's method for a bracketed root: inverse quadratic interpolation and secant
+steps where they make progress, bisection where they don't.  On the smooth
+curves used here (altitude and hour angle against time) it usually converges
+in a handful of evaluations.
+ */
+final class RootFinder {
+
+    // Own interface rather than java.util.function, which needs API 24 on Android
+    interface Function {
+        double value(double x);
+    }
+
+    private static final int MAX_ITERATIONS = 64;
+
+    private RootFinder() {
+    }
+
+    // Root of f in [a, b] to within tolerance, or NaN if f(a) and f(b) have the same sign
+    static double findRoot(Function f, double a, double b, double tolerance) {
+
+        double fa = f.value(a);
+        double fb = f.value(b);
+        return findRoot(f, a, fa, b, fb, tolerance);
+
+    }
+
+    // Variant for callers that already evaluated the bracket ends
+    static double findRoot(Function f, double a, double fa, double b, double fb, double tolerance) {
+
+        if (fa == 0) return a;
+        if (fb == 0) return b;
+        if ((fa > 0) == (fb > 0)) return Double.NaN;
+
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+
+            // Keep b as the best estimate and [b, c] as the bracket
+            if ((fb > 0) == (fc > 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            double halfTolerance = 0.5 * tolerance;
+            double midpoint = 0.5 * (c - b);
+            if (Math.abs(midpoint) <= halfTolerance || fb == 0) {
+                return b;
+            }
+
+            if (Math.abs(e) >= halfTolerance && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    // Secant step
+                    p = 2 * midpoint * s;
+                    q = 1 - s;
+                } else {
+                    // Inverse quadratic interpolation
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * midpoint * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) q = -q;
+                else p = -p;
+
+                if (2 * p < Math.min(3 * midpoint * q - Math.abs(halfTolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = midpoint;
+                    e = d;
+                }
+            } else {
+                d = midpoint;
+                e = d;
+            }
+
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > halfTolerance ? d : Math.copySign(halfTolerance, midpoint);
+            fb = f.value(b);
+        }
+
+        return b;
+
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.example.sundial;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ShadowManager {
+
+    private final double maxLength;
+    private final double minLength;
+    private final double maxWidth;
+    private final double minWidth;
+    private final double maxSolarAltitude = 90.0;
+
+    // Trajectories are cached per (location rounded to 0.01 degrees, day, sample count); a couple of days is plenty
+    private static final int MAX_CACHED_TRAJECTORIES = 4;
+    private static final double LOCATION_QUANTUM = 0.01;
+    private final Map<TrajectoryKey, ShadowTrajectory> trajectoryCache =
+            new LinkedHashMap<TrajectoryKey, ShadowTrajectory>(MAX_CACHED_TRAJECTORIES + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TrajectoryKey, ShadowTrajectory> eldest) {
+                    return size() > MAX_CACHED_TRAJECTORIES;
+                }
+            };
+
+    public ShadowManager(double maxLength, double minLength, double maxWidth, double minWidth) {
+
+        this.maxLength = maxLength; // center to outermost circle
+        this.minLength = minLength; // just before the roman numerals
+        this.maxWidth = maxWidth;
+        this.minWidth = minWidth;
+
+    }
+
+    public double calculateAngularWidth(double solarAzimuth) {
+        long start = Instrumentation.begin(Instrumentation.Stage.SHADOW_COMPUTE);
+
+        // Convert solar azimuth to hours (0 at midnight, 12 at noon, 24 at midnight)
+        double timeOfDay = ((solarAzimuth + 180) % 360) / 15.0;
+
+        // Calculate how far we are from noon (regardless of AM/PM)
+        double hoursFromNoon = Math.abs(12 - (timeOfDay % 24));
+
+        // Map this to a width: thinnest at noon, widest at sunrise/sunset
+        double widthRatio = hoursFromNoon / 6.0;
+        if (widthRatio > 1.0) widthRatio = 1.0;
+
+        double width = minWidth + (maxWidth - minWidth) * widthRatio;
+
+        Instrumentation.end(Instrumentation.Stage.SHADOW_COMPUTE, start);
+        return width;
+    }
+
+    public double calculateShadowLength(double solarAltitude, double phonePitch) {
+        if (solarAltitude < 0) return 0; // No shadow below the horizon
+        long start = Instrumentation.begin(Instrumentation.Stage.SHADOW_COMPUTE);
+
+        if (solarAltitude > maxSolarAltitude) solarAltitude = maxSolarAltitude;
+
+        // Normalize altitude
+        double normalizedAltitude = solarAltitude / maxSolarAltitude;
+
+        // Adjust scaling: Use inverse relationship for shadow length
+        double scaledLength = minLength + (1 - normalizedAltitude) * (maxLength - minLength);
+
+        // Apply pitch correction
+        double finalLength = scaledLength * Math.cos(Math.toRadians(phonePitch));
+
+        Instrumentation.end(Instrumentation.Stage.SHADOW_COMPUTE, start);
+        return finalLength;
+    }
+
+
+    public double calculateShadowDirection(double solarAzimuth, double phoneRoll) {
+        // Solar azimuth: 0° = North, 90° = East, 180° = South, 270° = West
+        // We want the shadow to point opposite to the sun
+        long start = Instrumentation.begin(Instrumentation.Stage.SHADOW_COMPUTE);
+
+        // First normalize azimuth to 0-360 range
+        solarAzimuth = (solarAzimuth + 360) % 360;
+
+        // Calculate shadow direction (opposite to sun)
+        double shadowDirection = (solarAzimuth + 180) % 360;
+
+        // Account for phone rotation
+        double adjustedDirection = (shadowDirection - phoneRoll + 360) % 360;
+
+        Instrumentation.end(Instrumentation.Stage.SHADOW_COMPUTE, start);
+        return adjustedDirection;
+    }
+
+    // The shadow for a level phone at 'samples' evenly spaced instants covering the 24 hours from dayStartMillis.
+    // Results are cached, so calling this every frame for the same day and place is just a map lookup.
+    public ShadowTrajectory calculateDayTrajectory(double latitude, double longitude, long dayStartMillis, int samples) {
+
+        if (samples < 2) {
+            throw new IllegalArgumentException("A trajectory needs at least two samples: " + samples);
+        }
+
+        long latitudeKey = Math.round(latitude / LOCATION_QUANTUM);
+        long longitudeKey = Math.round(longitude / LOCATION_QUANTUM);
+        TrajectoryKey key = new TrajectoryKey(latitudeKey, longitudeKey, dayStartMillis, samples);
+
+        synchronized (trajectoryCache) {
+            ShadowTrajectory cached = trajectoryCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Computed from the quantized location so every caller that maps to this key sees the same trajectory
+        ShadowTrajectory trajectory = buildTrajectory(latitudeKey * LOCATION_QUANTUM, longitudeKey * LOCATION_QUANTUM,
+                dayStartMillis, samples);
+
+        synchronized (trajectoryCache) {
+            trajectoryCache.put(key, trajectory);
+        }
+        return trajectory;
+
+    }
+
+    private ShadowTrajectory buildTrajectory(double latitude, double longitude, long dayStartMillis, int samples) {
+
+        long stepMillis = 86400000L / (samples - 1);
+
+        long[] times = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            times[i] = dayStartMillis + i * stepMillis;
+        }
+        double[] solarAltitude = new double[samples];
+        double[] solarAzimuth = new double[samples];
+        SolarCalculator.calculateBatch(latitude, longitude, times, solarAltitude, solarAzimuth);
+
+        double[] length = new double[samples];
+        double[] direction = new double[samples];
+        double[] width = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            length[i] = calculateShadowLength(solarAltitude[i], 0);
+            direction[i] = calculateShadowDirection(solarAzimuth[i], 0);
+            // Width is derived from the shadow direction, matching what ShadowAnimationManager feeds it
+            width[i] = calculateAngularWidth(direction[i]);
+        }
+
+        return new ShadowTrajectory(dayStartMillis, stepMillis, solarAltitude, solarAzimuth, length, direction, width);
+
+    }
+
+    private static final class TrajectoryKey {
+
+        private final long latitude;
+        private final long longitude;
+        private final long dayStartMillis;
+        private final int samples;
+
+        TrajectoryKey(long latitude, long longitude, long dayStartMillis, int samples) {
+
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.dayStartMillis = dayStartMillis;
+            this.samples = samples;
+
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof TrajectoryKey)) return false;
+            TrajectoryKey key = (TrajectoryKey) other;
+            return latitude == key.latitude && longitude == key.longitude
+                    && dayStartMillis == key.dayStartMillis && samples == key.samples;
+
+        }
+
+        @Override
+        public int hashCode() {
+
+            int hash = Long.hashCode(latitude);
+            hash = 31 * hash + Long.hashCode(longitude);
+            hash = 31 * hash + Long.hashCode(dayStartMillis);
+            return 31 * hash + samples;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.example.sundial;
+
+/*
+Decides when the sun next needs recomputing.  The shadow tip moves slowly and
+predictably, so from the current solar rates we can tell how long it takes to
+move a visible distance on the dial and sleep until then, instead of
+recomputing on a fixed timer.  At night nothing is drawn, so the next
+computation waits for sunrise.
+
+Delays assume a level phone; tilting is handled separately from the cached sun
+position and does not need a new solar calculation.  Instances are not
+thread-safe.
+ */
+public class ShadowRecomputeScheduler {
+
+    public static final long MIN_DELAY_MILLIS = 1000;
+    public static final long MAX_DELAY_MILLIS = 15 * 60000L;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    // Finite-difference step for the shadow tip's velocity; short next to how fast its rate changes
+    private static final long RATE_STEP_MILLIS = 60000L;
+
+    private final ShadowManager shadowManager;
+    private final double thresholdPixels;
+
+    private final long[] times = new long[2];
+    private final double[] altitudes = new double[2];
+    private final double[] azimuths = new double[2];
+
+    // thresholdPixels is in the same units as shadowManager's lengths (view pixels in the app)
+    public ShadowRecomputeScheduler(ShadowManager shadowManager, double thresholdPixels) {
+
+        if (!(thresholdPixels > 0)) {
+            throw new IllegalArgumentException("threshold must be positive: " + thresholdPixels);
+        }
+        this.shadowManager = shadowManager;
+        this.thresholdPixels = thresholdPixels;
+
+    }
+
+    // Milliseconds from nowMillis until the shadow tip will have moved thresholdPixels, or until sunrise at night
+    public long calculateDelay(double latitude, double longitude, long nowMillis) {
+
+        times[0] = nowMillis;
+        times[1] = nowMillis + RATE_STEP_MILLIS;
+        SolarCalculator.calculateBatch(latitude, longitude, times, altitudes, azimuths);
+
+        double altitudeRate = (altitudes[1] - altitudes[0]) / RATE_STEP_MILLIS; // degrees per millisecond
+
+        // The shadow appears and vanishes as the sun crosses the horizon, which the tip's rate does not
+        // predict; wake up for the crossing instead
+        if (altitudes[0] < 0) {
+            // Between the sunrise event (the sun's upper limb, with refraction) and the center reaching 0
+            if (altitudeRate > 0 && altitudes[0] >= SolarEventSolver.SUNRISE_ALTITUDE) {
+                return clamp((long) (-altitudes[0] / altitudeRate));
+            }
+            return delayUntilSunrise(latitude, longitude, nowMillis);
+        }
+
+        double pixelsPerMilli = tipDistance() / RATE_STEP_MILLIS;
+        long delay = pixelsPerMilli > 0 ? clamp((long) (thresholdPixels / pixelsPerMilli)) : MAX_DELAY_MILLIS;
+
+        if (altitudeRate < 0) {
+            delay = Math.min(delay, clamp((long) (altitudes[0] / -altitudeRate)));
+        }
+        return delay;
+
+    }
+
+    // Distance between the shadow tips at times[0] and times[1], as drawn on the dial
+    private double tipDistance() {
+
+        double length0 = shadowManager.calculateShadowLength(altitudes[0], 0);
+        double length1 = shadowManager.calculateShadowLength(altitudes[1], 0);
+        double direction0 = Math.toRadians(shadowManager.calculateShadowDirection(azimuths[0], 0));
+        double direction1 = Math.toRadians(shadowManager.calculateShadowDirection(azimuths[1], 0));
+
+        double dx = length1 * Math.sin(direction1) - length0 * Math.sin(direction0);
+        double dy = length1 * Math.cos(direction1) - length0 * Math.cos(direction0);
+        return Math.hypot(dx, dy);
+
+    }
+
+    private long delayUntilSunrise(double latitude, double longitude, long nowMillis) {
+
+        long sunrise = nextSunrise(new SolarEventSolver(latitude, longitude), nowMillis);
+
+        // Polar night: check back periodically
+        return sunrise == SolarEventSolver.NO_EVENT ? MAX_DELAY_MILLIS : Math.max(MIN_DELAY_MILLIS, sunrise - nowMillis);
+
+    }
+
+    // First sunrise after nowMillis.  The solver works in UTC days, and away from Greenwich a local
+    // morning can fall in the UTC day before or after, so the neighbouring days are checked too.
+    private static long nextSunrise(SolarEventSolver solver, long nowMillis) {
+
+        long dayStart = utcDayStart(nowMillis);
+        for (int day = -1; day <= 1; day++) {
+            long sunrise = solver.calculateSunrise(dayStart + day * MILLIS_PER_DAY);
+            if (sunrise != SolarEventSolver.NO_EVENT && sunrise > nowMillis) {
+                return sunrise;
+            }
+        }
+        return SolarEventSolver.NO_EVENT;
+
+    }
+
+    private static long clamp(long delayMillis) {
+
+        return Math.max(MIN_DELAY_MILLIS, Math.min(MAX_DELAY_MILLIS, delayMillis));
+
+    }
+
+    private static long utcDayStart(long timeInMillis) {
+
+        return Math.floorDiv(timeInMillis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+
+    }
+
+}
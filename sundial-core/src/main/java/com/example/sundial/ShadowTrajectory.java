@@ -0,0 +1,145 @@
+package com.example.sundial;
+
+/*
+A whole day of shadow geometry sampled at a fixed step, for a level phone
+(no pitch or roll correction).  Lets the view draw the day's path and scrub
+or animate along it by interpolation instead of recomputing solar positions.
+Instances are immutable: the arrays are private and only read through the
+indexed getters, so a trajectory shared from ShadowManager's cache cannot be
+altered by any of its callers.
+ */
+public final class ShadowTrajectory {
+
+    private final long startMillis;
+    private final long stepMillis;
+
+    private final double[] solarAltitude;   // degrees
+    private final double[] solarAzimuth;    // degrees
+    private final double[] length;          // same units as ShadowManager's min/max length
+    private final double[] direction;       // degrees, compass (0 = North, clockwise)
+    private final double[] width;           // degrees
+
+    // Takes ownership of the arrays, which must all hold the same number of samples (at least two)
+    ShadowTrajectory(long startMillis, long stepMillis, double[] solarAltitude, double[] solarAzimuth,
+                     double[] length, double[] direction, double[] width) {
+
+        this.startMillis = startMillis;
+        this.stepMillis = stepMillis;
+        this.solarAltitude = solarAltitude;
+        this.solarAzimuth = solarAzimuth;
+        this.length = length;
+        this.direction = direction;
+        this.width = width;
+
+    }
+
+    public int getSampleCount() {
+
+        return length.length;
+
+    }
+
+    public long getStartMillis() {
+
+        return startMillis;
+
+    }
+
+    public long getStepMillis() {
+
+        return stepMillis;
+
+    }
+
+    public long getEndMillis() {
+
+        return startMillis + (length.length - 1) * stepMillis;
+
+    }
+
+    public long getTimeAt(int sample) {
+
+        return startMillis + sample * stepMillis;
+
+    }
+
+    public double getLength(int sample) {
+
+        return length[sample];
+
+    }
+
+    public double getDirection(int sample) {
+
+        return direction[sample];
+
+    }
+
+    public double getWidth(int sample) {
+
+        return width[sample];
+
+    }
+
+    public double getSolarAltitude(int sample) {
+
+        return solarAltitude[sample];
+
+    }
+
+    public double getSolarAzimuth(int sample) {
+
+        return solarAzimuth[sample];
+
+    }
+
+    public boolean contains(long timeInMillis) {
+
+        return timeInMillis >= startMillis && timeInMillis <= getEndMillis();
+
+    }
+
+    // Interpolated shadow length at any instant inside the trajectory (clamped to its ends)
+    public double lengthAt(long timeInMillis) {
+
+        int sample = sampleBefore(timeInMillis);
+        double fraction = fractionAfter(sample, timeInMillis);
+        return length[sample] + (length[sample + 1] - length[sample]) * fraction;
+
+    }
+
+    public double widthAt(long timeInMillis) {
+
+        int sample = sampleBefore(timeInMillis);
+        double fraction = fractionAfter(sample, timeInMillis);
+        return width[sample] + (width[sample + 1] - width[sample]) * fraction;
+
+    }
+
+    // Interpolated shadow direction, taking the short way around 360 -> 0
+    public double directionAt(long timeInMillis) {
+
+        int sample = sampleBefore(timeInMillis);
+        double fraction = fractionAfter(sample, timeInMillis);
+        double difference = ((direction[sample + 1] - direction[sample] + 540) % 360) - 180;
+        return (direction[sample] + difference * fraction + 360) % 360;
+
+    }
+
+    private int sampleBefore(long timeInMillis) {
+
+        long offset = timeInMillis - startMillis;
+        if (offset <= 0) return 0;
+        int sample = (int) (offset / stepMillis);
+        return Math.min(sample, length.length - 2);
+
+    }
+
+    private double fractionAfter(int sample, long timeInMillis) {
+
+        double fraction = (timeInMillis - getTimeAt(sample)) / (double) stepMillis;
+        return Math.max(0, Math.min(1, fraction));
+
+    }
+
+}
@@ -0,0 +1,300 @@
+package com.example.sundial;
+
+public class SolarCalculator {
+
+    private final double latitude;
+    private final double longitude;
+    private long timeInMillis;
+    private boolean fastMath;
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+
+    // Constant representing the Julian Date of Jan. 1, 2000, a standard convenience for simplifying time calculations for celestial objects
+    private static final double J2000Epoch = 2451545.0;
+
+    // The J2000 epoch (Jan. 1, 2000, 12:00 UTC) expressed in Unix epoch milliseconds
+    private static final long J2000_EPOCH_MILLIS = 946728000000L;
+    private static final double UNIX_EPOCH_JULIAN_DATE = J2000Epoch - J2000_EPOCH_MILLIS / 86400000.0;
+    private static final double MILLIS_PER_DAY = 86400000.0;
+
+    public SolarCalculator(double latitude, double longitude, long timeInMillis) {
+
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timeInMillis = timeInMillis;
+
+    }
+
+    // Moves the calculator to a new instant so one instance can be reused across ticks instead of being rebuilt
+    public void setTimeInMillis(long timeInMillis) {
+
+        this.timeInMillis = timeInMillis;
+
+    }
+
+    public long getTimeInMillis() {
+
+        return timeInMillis;
+
+    }
+
+    // Opt-in polynomial trig (see FastMath), within 0.01 degrees.  Only affects this instance's
+    // calculateAltitudeAndAzimuth(): the static stages and batches are shared by every caller and take
+    // SolarPositionAlgorithm.STANDARD_FAST_MATH explicitly, and calculateInBackground() runs on the
+    // executor's own calculators.
+    public void setFastMath(boolean fastMath) {
+
+        this.fastMath = fastMath;
+
+    }
+
+    public boolean isFastMath() {
+
+        return fastMath;
+
+    }
+
+    // Continuous count of days and fractions of days since Jan 1., 4713 BCE, noon.  Continuous scale in decimal days.
+    // The Unix epoch (1970-01-01T00:00Z) is Julian Date 2440587.5, so the conversion is pure arithmetic on epoch millis.
+    static double calculateJulianDate(long timeInMillis) {
+
+        return UNIX_EPOCH_JULIAN_DATE + timeInMillis / MILLIS_PER_DAY;
+
+    }
+
+    // Days (with millisecond precision) since the J2000 epoch.  Measured from J2000 directly rather than by
+    // subtracting two large Julian Dates, which keeps the fractional part of the day exact.
+    static double daysSinceJ2000(long timeInMillis) {
+
+        return (timeInMillis - J2000_EPOCH_MILLIS) / MILLIS_PER_DAY;
+
+    }
+
+    // Angle measured from the center of an idealized circular orbit of the earth, simplifying calculations
+    private static double calculateMeanSolarAnomaly(double julianCenturyTime) {
+
+        double meanSolarAnomaly = (357.52911 + 35999.05029 * julianCenturyTime) % 360;
+        if (meanSolarAnomaly < 0) meanSolarAnomaly += 360;
+        return meanSolarAnomaly;
+
+    }
+
+    // Correction term added to mean solar anomaly to account for the elliptical shape of earth's orbit
+    private static double calculateEquationOfCenter(double julianCenturyTime, double meanAnomalyDegrees) {
+
+        double meanAnomaly_rad = meanAnomalyDegrees * DEGREES_TO_RADIANS;
+
+        // Correction for elliptical orbit
+        double mainAdjustment = (1.914602 - 0.004817 * julianCenturyTime - 0.000014 * julianCenturyTime * julianCenturyTime) * Math.sin(meanAnomaly_rad);
+
+        // Corrects position based on smaller orbital deviations
+        double orbitalDeviationAdjustment = (0.019993 - 0.000101 * julianCenturyTime) * Math.sin(2 * meanAnomaly_rad);
+
+        // Corrects for minute details
+        double minuteDeviationAdjustment = 0.000289 * Math.sin(3 * meanAnomaly_rad);
+
+        return mainAdjustment + orbitalDeviationAdjustment + minuteDeviationAdjustment;
+
+    }
+
+    // Apparent position of the sun along the ecliptic plane
+    private static double calculateEclipticLongitude(double julianCenturyTime, double meanSolarAnomaly) {
+
+        // Approximate position of earth along the ecliptic plane
+        double meanLongitude = (280.46646 + 36000.76983 * julianCenturyTime) % 360;
+        if (meanLongitude < 0) meanLongitude += 360;
+
+        // Correction term for the elliptical shape of the earth's orbit about the sun
+        double equationOfCenter = calculateEquationOfCenter(julianCenturyTime, meanSolarAnomaly);
+
+        // Sun's apparent position as seen from earth on the celestial sphere
+        double trueLongitude = meanLongitude + equationOfCenter;
+        if (trueLongitude > 360) trueLongitude -= 360;
+
+        return trueLongitude;
+
+    }
+
+    // Angle between the sun's rays and the equatorial plane of the earth, giving how far north or south the sun is relative to the equator
+    private static double calculateSolarDeclination(double epsilon_rad, double lambda_rad) {
+
+        // Solar Declination
+        return Math.asin(Math.sin(epsilon_rad) * Math.sin(lambda_rad));
+
+    }
+
+    // Angular measure defining the position of the sun in relation to the celestial equator - how far east the sun is along the celestial equator
+    private static double calculateRightAscension(double epsilon_rad, double lambda_rad) {
+
+        double rightAscension_rad = Math.atan2(Math.cos(epsilon_rad) * Math.sin(lambda_rad), Math.cos(lambda_rad));
+        if (rightAscension_rad < 0) rightAscension_rad += 2 * Math.PI;
+        return rightAscension_rad * RADIANS_TO_DEGREES;
+
+    }
+
+    // Time scale used in astronomy
+    static double calculateLocalSiderealTime(double daysPassedSinceJ2000Epoch, double longitude) {
+
+        double greenwichMeanSiderealTime = (280.46061837 + 360.98564736629 * daysPassedSinceJ2000Epoch) % 360;
+        if (greenwichMeanSiderealTime < 0) greenwichMeanSiderealTime += 360;
+
+        double localSiderealTime = (greenwichMeanSiderealTime + longitude) % 360;
+        if (localSiderealTime < 0) localSiderealTime += 360;
+        return localSiderealTime;
+
+    }
+
+    // Angular distance in degrees between the observer's meridian (north-south line overhead) and the meridian containing the sun
+    static double calculateHourAngle(double localSiderealTime, double rightAscensionDegrees) {
+
+        double hourAngleDegrees = (localSiderealTime - rightAscensionDegrees + 360) % 360;
+        if (hourAngleDegrees > 180) hourAngleDegrees -= 360;
+        return hourAngleDegrees * DEGREES_TO_RADIANS;
+
+    }
+
+
+    public interface SolarCalculatorCallback {
+        void onCalculationComplete(double altitude, double azimuth);
+    }
+
+    // Hands the calculation to a shared executor, which coalesces bursts of requests instead of spawning a thread per call
+    public void calculateInBackground(SolarComputeExecutor executor, SolarCalculatorCallback callback) {
+        executor.submit(latitude, longitude, timeInMillis, callback);
+    }
+
+    // Evaluates the sun's altitude and azimuth for one observer at many instants.  Results are written in
+    // struct-of-arrays form into the caller's arrays, so nothing is allocated per instant.
+    public static void calculateBatch(double latitude, double longitude, long[] timesInMillis,
+                                      double[] altitudeOut, double[] azimuthOut) {
+
+        checkBatchLengths(timesInMillis.length, altitudeOut, azimuthOut);
+
+        for (int i = 0; i < timesInMillis.length; i++) {
+            calculateAltitudeAndAzimuth(daysSinceJ2000(timesInMillis[i]), latitude, longitude, altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    // Same as above, but every instant has its own observer (latitudes[i], longitudes[i])
+    public static void calculateBatch(double[] latitudes, double[] longitudes, long[] timesInMillis,
+                                      double[] altitudeOut, double[] azimuthOut) {
+
+        checkBatchLengths(timesInMillis.length, altitudeOut, azimuthOut);
+        if (latitudes.length < timesInMillis.length || longitudes.length < timesInMillis.length) {
+            throw new IllegalArgumentException("Observer arrays are shorter than the timestamp array");
+        }
+
+        for (int i = 0; i < timesInMillis.length; i++) {
+            calculateAltitudeAndAzimuth(daysSinceJ2000(timesInMillis[i]), latitudes[i], longitudes[i], altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    // Batch evaluation with a chosen accuracy tier, e.g. SolarPositionAlgorithm.FAST for animation frames
+    public static void calculateBatch(SolarPositionAlgorithm algorithm, double latitude, double longitude,
+                                      long[] timesInMillis, double[] altitudeOut, double[] azimuthOut) {
+
+        checkBatchLengths(timesInMillis.length, altitudeOut, azimuthOut);
+
+        for (int i = 0; i < timesInMillis.length; i++) {
+            algorithm.calculate(latitude, longitude, timesInMillis[i], altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    private static void checkBatchLengths(int count, double[] altitudeOut, double[] azimuthOut) {
+
+        if (altitudeOut.length < count || azimuthOut.length < count) {
+            throw new IllegalArgumentException("Output arrays are shorter than the timestamp array");
+        }
+
+    }
+
+    // The two coordinates (altitude, azimuth) that determines the sun's position overhead in the sky, crucial for sundial functionality
+    public double[] calculateAltitudeAndAzimuth() {
+
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        if (fastMath) {
+            FastMathSolarPosition.calculateAltitudeAndAzimuth(daysSinceJ2000(timeInMillis), latitude, longitude, altitude, azimuth, 0);
+        } else {
+            calculateAltitudeAndAzimuth(daysSinceJ2000(timeInMillis), latitude, longitude, altitude, azimuth, 0);
+        }
+        return new double[]{altitude[0], azimuth[0]};
+
+    }
+
+    // Same as above with a chosen accuracy tier, e.g. SolarPositionAlgorithm.PRECISE for survey use
+    public double[] calculateAltitudeAndAzimuth(SolarPositionAlgorithm algorithm) {
+
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        algorithm.calculate(latitude, longitude, timeInMillis, altitude, azimuth, 0);
+        return new double[]{altitude[0], azimuth[0]};
+
+    }
+
+    // Allocation-free core shared by the single and batch paths; writes the result into slot [index] of the output arrays.
+    // The day count is computed once by the caller and threaded through every stage.
+    static void calculateAltitudeAndAzimuth(double daysPassedSinceJ2000Epoch, double latitude, double longitude,
+                                                    double[] altitudeOut, double[] azimuthOut, int index) {
+
+        double julianCentury = daysPassedSinceJ2000Epoch / 36525.0; // Julian Centuries
+        double meanSolarAnomaly = calculateMeanSolarAnomaly(julianCentury);
+        double eclipticLongitude = calculateEclipticLongitude(julianCentury, meanSolarAnomaly);
+
+        // Tilt of the earth's axis relative to its orbit around the sun
+        double obliquityOfEcliptic = 23.439291 - 0.0130042 * julianCentury;
+
+        // Radian conversions
+        double lambda_rad = eclipticLongitude * DEGREES_TO_RADIANS;
+        double epsilon_rad = obliquityOfEcliptic * DEGREES_TO_RADIANS;
+
+        double solarDeclination = calculateSolarDeclination(epsilon_rad, lambda_rad);
+        double rightAscension = calculateRightAscension(epsilon_rad, lambda_rad);
+
+        calculateHorizontalCoordinates(daysPassedSinceJ2000Epoch, latitude, longitude, solarDeclination, rightAscension,
+                altitudeOut, azimuthOut, index);
+
+    }
+
+    // Observer-independent terms for one instant: out[0] = declination (radians), out[1] = right ascension (degrees),
+    // out[2] = equation of center (degrees).  These change slowly and can be cached or shared between observers.
+    static void calculateEquatorialCoordinates(double daysPassedSinceJ2000Epoch, double[] out) {
+
+        double julianCentury = daysPassedSinceJ2000Epoch / 36525.0; // Julian Centuries
+        double meanSolarAnomaly = calculateMeanSolarAnomaly(julianCentury);
+        double eclipticLongitude = calculateEclipticLongitude(julianCentury, meanSolarAnomaly);
+        double obliquityOfEcliptic = 23.439291 - 0.0130042 * julianCentury;
+
+        double lambda_rad = eclipticLongitude * DEGREES_TO_RADIANS;
+        double epsilon_rad = obliquityOfEcliptic * DEGREES_TO_RADIANS;
+
+        out[0] = calculateSolarDeclination(epsilon_rad, lambda_rad);
+        out[1] = calculateRightAscension(epsilon_rad, lambda_rad);
+        out[2] = calculateEquationOfCenter(julianCentury, meanSolarAnomaly);
+
+    }
+
+    // Location-dependent step: sidereal time, hour angle and the conversion to altitude/azimuth in degrees
+    static void calculateHorizontalCoordinates(double daysPassedSinceJ2000Epoch, double latitude, double longitude,
+                                               double solarDeclination, double rightAscension,
+                                               double[] altitudeOut, double[] azimuthOut, int index) {
+
+        double latitude_rad = latitude * DEGREES_TO_RADIANS;
+        double localSiderealTime = calculateLocalSiderealTime(daysPassedSinceJ2000Epoch, longitude);
+        double hourAngle_rad = calculateHourAngle(localSiderealTime, rightAscension);
+
+        // Altitude
+        double altitude_rad = Math.asin(Math.sin(latitude_rad) * Math.sin(solarDeclination) + Math.cos(latitude_rad) * Math.cos(solarDeclination) * Math.cos(hourAngle_rad));
+        altitudeOut[index] = altitude_rad * RADIANS_TO_DEGREES;
+
+        // Azimuth
+        double azimuth_rad = Math.atan2(-Math.sin(hourAngle_rad), Math.cos(latitude_rad) * Math.tan(solarDeclination) - Math.sin(latitude_rad) * Math.cos(hourAngle_rad));
+        azimuthOut[index] = (azimuth_rad * RADIANS_TO_DEGREES + 360) % 360;
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.example.sundial;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+Runs solar (or, in Moondial mode, lunar) position calculations on one shared
+worker thread.  Requests are coalesced: while the worker is busy only the
+newest (location, time) is kept, and a result is dropped if a newer request
+was submitted while it was computing.
+ */
+public class SolarComputeExecutor {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Request> pending = new AtomicReference<>();
+    private ExecutorService executor;
+
+    // Replaces the worker thread when set; tests pass Runnable::run to compute on the submitting thread
+    private final Executor worker;
+
+    // Worker-owned output buffers, safe to reuse because there is only one worker thread
+    private final double[] altitudeBuffer = new double[1];
+    private final double[] azimuthBuffer = new double[1];
+
+    // Repeated fixes fall on the same day, so positions are interpolated from the cached daily ephemeris
+    private final SolarEphemerisCache ephemerisCache = new SolarEphemerisCache();
+    private final LunarCalculator.Workspace lunarWorkspace = new LunarCalculator.Workspace();
+
+    // Precomputed range (e.g. mapped from the app's assets); inside it the sun needs no daily table at all
+    private volatile ChebyshevEphemeris ephemeris;
+
+    private static final class Request {
+
+        final long generation;
+        final CelestialBody body;
+        final double latitude;
+        final double longitude;
+        final long timeInMillis;
+        final SolarCalculator.SolarCalculatorCallback callback;
+
+        Request(long generation, CelestialBody body, double latitude, double longitude, long timeInMillis,
+                SolarCalculator.SolarCalculatorCallback callback) {
+
+            this.generation = generation;
+            this.body = body;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.timeInMillis = timeInMillis;
+            this.callback = callback;
+
+        }
+
+    }
+
+    public SolarComputeExecutor() {
+
+        this(null);
+
+    }
+
+    SolarComputeExecutor(Executor worker) {
+
+        this.worker = worker;
+
+    }
+
+    // May be set at any time; null goes back to the per-day cache for every instant
+    public void setEphemeris(ChebyshevEphemeris ephemeris) {
+
+        this.ephemeris = ephemeris;
+
+    }
+
+    public void submit(double latitude, double longitude, long timeInMillis,
+                       SolarCalculator.SolarCalculatorCallback callback) {
+
+        submit(CelestialBody.SUN, latitude, longitude, timeInMillis, callback);
+
+    }
+
+    // The callback receives the body's altitude and azimuth; a request for either body supersedes any pending one
+    public synchronized void submit(CelestialBody body, double latitude, double longitude, long timeInMillis,
+                                    SolarCalculator.SolarCalculatorCallback callback) {
+
+        if (worker == null && executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "SolarCompute");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        Request request = new Request(generation.incrementAndGet(), body, latitude, longitude, timeInMillis, callback);
+
+        // Only schedule a drain if there was nothing waiting; otherwise the queued drain picks up this request
+        if (pending.getAndSet(request) == null) {
+            (worker != null ? worker : executor).execute(this::drain);
+        }
+
+    }
+
+    private void drain() {
+
+        Request request = pending.getAndSet(null);
+        if (request == null || request.generation != generation.get()) {
+            return;
+        }
+
+        long start = Instrumentation.begin(Instrumentation.Stage.SOLAR_COMPUTE);
+        ChebyshevEphemeris currentEphemeris = ephemeris;
+        if (request.body == CelestialBody.MOON) {
+            LunarCalculator.calculateAltitudeAndAzimuth(request.timeInMillis, request.latitude, request.longitude,
+                    lunarWorkspace, altitudeBuffer, azimuthBuffer, 0);
+        } else if (currentEphemeris != null && currentEphemeris.contains(request.timeInMillis)) {
+            currentEphemeris.calculate(request.latitude, request.longitude, request.timeInMillis, altitudeBuffer, azimuthBuffer, 0);
+        } else {
+            ephemerisCache.calculate(request.latitude, request.longitude, request.timeInMillis, altitudeBuffer, azimuthBuffer, 0);
+        }
+        Instrumentation.end(Instrumentation.Stage.SOLAR_COMPUTE, start);
+
+        // A newer request arrived while computing, so this result is already stale
+        if (request.generation != generation.get()) {
+            return;
+        }
+
+        request.callback.onCalculationComplete(altitudeBuffer[0], azimuthBuffer[0]);
+
+    }
+
+    // Drops any pending request and invalidates results that are still being computed
+    public void cancel() {
+
+        generation.incrementAndGet();
+        pending.set(null);
+
+    }
+
+    public synchronized void shutdown() {
+
+        cancel();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+
+    }
+
+}
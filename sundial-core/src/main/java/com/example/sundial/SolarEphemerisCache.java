@@ -0,0 +1,229 @@
+package com.example.sundial;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+Caches the slow-moving, observer-independent solar quantities (declination,
+right ascension and equation of center) on a coarse grid for each UTC day.
+Evaluating a position then only interpolates between grid nodes and runs the
+cheap location-dependent hour angle step.  Days are kept in LRU order.
+ */
+public class SolarEphemerisCache {
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private final int samplesPerDay;
+    private final long stepMillis;
+    private final int maxDays;
+
+    private final Map<Long, DayTable> days;
+
+    // Most recently used day, checked before the map so per-frame lookups stay lock- and allocation-free
+    private volatile DayTable lastDay;
+
+    private static final class DayTable {
+
+        final long dayIndex;
+        final double[] declination;     // radians
+        final double[] rightAscension;  // degrees, unwrapped so neighbouring nodes can be interpolated across 360
+        final double[] equationOfCenter; // degrees
+        double maxError;                // degrees, worst interpolation error found at the interval midpoints
+
+        DayTable(long dayIndex, int nodes) {
+
+            this.dayIndex = dayIndex;
+            this.declination = new double[nodes];
+            this.rightAscension = new double[nodes];
+            this.equationOfCenter = new double[nodes];
+
+        }
+
+    }
+
+    public SolarEphemerisCache() {
+
+        this(24, 7); // hourly grid, one week of days
+
+    }
+
+    public SolarEphemerisCache(int samplesPerDay, int maxDays) {
+
+        if (samplesPerDay <= 0 || MILLIS_PER_DAY % samplesPerDay != 0) {
+            throw new IllegalArgumentException("samplesPerDay must evenly divide a day: " + samplesPerDay);
+        }
+        if (maxDays <= 0) {
+            throw new IllegalArgumentException("maxDays must be positive: " + maxDays);
+        }
+
+        this.samplesPerDay = samplesPerDay;
+        this.stepMillis = MILLIS_PER_DAY / samplesPerDay;
+        this.maxDays = maxDays;
+        this.days = new LinkedHashMap<Long, DayTable>(maxDays + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DayTable> eldest) {
+                return size() > SolarEphemerisCache.this.maxDays;
+            }
+        };
+
+    }
+
+    public double[] calculateAltitudeAndAzimuth(double latitude, double longitude, long timeInMillis) {
+
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        calculate(latitude, longitude, timeInMillis, altitude, azimuth, 0);
+        return new double[]{altitude[0], azimuth[0]};
+
+    }
+
+    public void calculateBatch(double latitude, double longitude, long[] timesInMillis,
+                               double[] altitudeOut, double[] azimuthOut) {
+
+        if (altitudeOut.length < timesInMillis.length || azimuthOut.length < timesInMillis.length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the timestamp array");
+        }
+
+        for (int i = 0; i < timesInMillis.length; i++) {
+            calculate(latitude, longitude, timesInMillis[i], altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    // Interpolated altitude/azimuth in degrees, written into slot [index] of the output arrays
+    public void calculate(double latitude, double longitude, long timeInMillis,
+                          double[] altitudeOut, double[] azimuthOut, int index) {
+
+        DayTable table = tableFor(timeInMillis);
+        long offset = timeInMillis - table.dayIndex * MILLIS_PER_DAY;
+        int node = (int) (offset / stepMillis);
+        double fraction = (offset - node * stepMillis) / (double) stepMillis;
+
+        double declination = interpolate(table.declination, node, fraction);
+        double rightAscension = interpolate(table.rightAscension, node, fraction) % 360;
+
+        SolarCalculator.calculateHorizontalCoordinates(SolarCalculator.daysSinceJ2000(timeInMillis), latitude, longitude,
+                declination, rightAscension, altitudeOut, azimuthOut, index);
+
+    }
+
+    // Solar declination in degrees
+    public double getDeclination(long timeInMillis) {
+
+        DayTable table = tableFor(timeInMillis);
+        long offset = timeInMillis - table.dayIndex * MILLIS_PER_DAY;
+        int node = (int) (offset / stepMillis);
+        return Math.toDegrees(interpolate(table.declination, node, (offset - node * stepMillis) / (double) stepMillis));
+
+    }
+
+    // Solar right ascension in degrees, 0 - 360
+    public double getRightAscension(long timeInMillis) {
+
+        DayTable table = tableFor(timeInMillis);
+        long offset = timeInMillis - table.dayIndex * MILLIS_PER_DAY;
+        int node = (int) (offset / stepMillis);
+        return interpolate(table.rightAscension, node, (offset - node * stepMillis) / (double) stepMillis) % 360;
+
+    }
+
+    // Equation of center in degrees
+    public double getEquationOfCenter(long timeInMillis) {
+
+        DayTable table = tableFor(timeInMillis);
+        long offset = timeInMillis - table.dayIndex * MILLIS_PER_DAY;
+        int node = (int) (offset / stepMillis);
+        return interpolate(table.equationOfCenter, node, (offset - node * stepMillis) / (double) stepMillis);
+
+    }
+
+    // Worst difference (degrees) between the interpolated and directly computed declination / right ascension
+    // for the day containing timeInMillis.  Hour angle and altitude errors are bounded by the same figure.
+    public double getMaxError(long timeInMillis) {
+
+        return tableFor(timeInMillis).maxError;
+
+    }
+
+    // Worst interpolation error (degrees) across all days currently cached
+    public synchronized double getMaxError() {
+
+        double maxError = 0;
+        for (DayTable table : days.values()) {
+            maxError = Math.max(maxError, table.maxError);
+        }
+        return maxError;
+
+    }
+
+    public synchronized void clear() {
+
+        days.clear();
+        lastDay = null;
+
+    }
+
+    private DayTable tableFor(long timeInMillis) {
+
+        long dayIndex = Math.floorDiv(timeInMillis, MILLIS_PER_DAY);
+
+        DayTable table = lastDay;
+        if (table != null && table.dayIndex == dayIndex) {
+            return table;
+        }
+
+        synchronized (this) {
+            table = days.get(dayIndex);
+            if (table == null) {
+                table = buildDay(dayIndex);
+                days.put(dayIndex, table);
+            }
+            lastDay = table;
+            return table;
+        }
+
+    }
+
+    private DayTable buildDay(long dayIndex) {
+
+        long dayStart = dayIndex * MILLIS_PER_DAY;
+        DayTable table = new DayTable(dayIndex, samplesPerDay + 1);
+        double[] terms = new double[3];
+
+        for (int i = 0; i <= samplesPerDay; i++) {
+            SolarCalculator.calculateEquatorialCoordinates(SolarCalculator.daysSinceJ2000(dayStart + i * stepMillis), terms);
+            table.declination[i] = terms[0];
+            table.rightAscension[i] = terms[1];
+            table.equationOfCenter[i] = terms[2];
+
+            // Keep right ascension continuous across the 360 -> 0 wrap so linear interpolation stays valid
+            if (i > 0 && table.rightAscension[i] < table.rightAscension[i - 1] - 180) {
+                table.rightAscension[i] += 360;
+            }
+        }
+
+        // Linear interpolation error peaks between nodes, so measure it at each interval midpoint
+        double maxError = 0;
+        for (int i = 0; i < samplesPerDay; i++) {
+            SolarCalculator.calculateEquatorialCoordinates(
+                    SolarCalculator.daysSinceJ2000(dayStart + i * stepMillis + stepMillis / 2), terms);
+
+            double declinationError = Math.toDegrees(Math.abs(interpolate(table.declination, i, 0.5) - terms[0]));
+            double rightAscensionError = Math.abs(interpolate(table.rightAscension, i, 0.5) % 360 - terms[1]);
+            if (rightAscensionError > 180) rightAscensionError = 360 - rightAscensionError;
+
+            maxError = Math.max(maxError, Math.max(declinationError, rightAscensionError));
+        }
+        table.maxError = maxError;
+
+        return table;
+
+    }
+
+    private static double interpolate(double[] values, int node, double fraction) {
+
+        return values[node] + (values[node + 1] - values[node]) * fraction;
+
+    }
+
+}
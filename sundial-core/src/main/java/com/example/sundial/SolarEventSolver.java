@@ -0,0 +1,185 @@
+package com.example.sundial;
+
+/*
+Finds the instants of solar events (sunrise, solar noon, sunset and the times
+the shadow crosses each hour line) for one observer.  Each event is bracketed
+from an analytic estimate and refined with Brent's method, so only a handful of
+solar position evaluations are needed per event instead of scanning the day.
+
+Instances reuse internal buffers and are not thread-safe.
+ */
+public class SolarEventSolver {
+
+    // Returned for events that do not happen on a day (polar day / polar night)
+    public static final long NO_EVENT = Long.MIN_VALUE;
+
+    // Altitude of the sun's center at sunrise/sunset: 34' of refraction plus the 16' solar semi-diameter
+    public static final double SUNRISE_ALTITUDE = -0.833;
+
+    private static final long MILLIS_PER_HOUR = 3600000L;
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    // Event times are refined to within one second
+    private static final double TOLERANCE_MILLIS = 1000;
+
+    // The equation of time stays within about 17 minutes, so every estimate below lands well inside this window
+    private static final long BRACKET_MILLIS = 30 * 60000L;
+
+    private final double latitude;
+    private final double longitude;
+
+    private final double[] terms = new double[3];
+    private final double[] altitudeBuffer = new double[1];
+    private final double[] azimuthBuffer = new double[1];
+
+    // Search state read by the objective functions; offsets passed to them are relative to originMillis
+    private long originMillis;
+    private double targetHourAngle;
+    private final RootFinder.Function altitudeAboveHorizon = this::altitudeAboveHorizon;
+    private final RootFinder.Function hourAngleFromTarget = this::hourAngleFromTarget;
+
+    public SolarEventSolver(double latitude, double longitude) {
+
+        this.latitude = latitude;
+        this.longitude = longitude;
+
+    }
+
+    // Instant the sun crosses the local meridian on the UTC day starting at dayStartMillis
+    public long calculateSolarNoon(long dayStartMillis) {
+
+        return calculateHourLineCrossing(dayStartMillis, 12);
+
+    }
+
+    // Instant the sun's hour angle reaches (hour - 12) * 15 degrees, i.e. when the shadow lies on that hour line of the dial.
+    // hour is local apparent solar time, 0 - 23.
+    public long calculateHourLineCrossing(long dayStartMillis, int hour) {
+
+        if (hour < 0 || hour > 23) {
+            throw new IllegalArgumentException("hour must be 0 - 23: " + hour);
+        }
+
+        // Mean solar time of this hour at the observer's longitude
+        long estimate = dayStartMillis + hour * MILLIS_PER_HOUR - Math.round(longitude / 15.0 * MILLIS_PER_HOUR);
+
+        originMillis = estimate;
+        targetHourAngle = (hour - 12) * 15.0;
+        double root = RootFinder.findRoot(hourAngleFromTarget, -BRACKET_MILLIS, BRACKET_MILLIS, TOLERANCE_MILLIS);
+        return Double.isNaN(root) ? NO_EVENT : originMillis + Math.round(root);
+
+    }
+
+    public long calculateSunrise(long dayStartMillis) {
+
+        return calculateHorizonCrossing(calculateSolarNoon(dayStartMillis), -1);
+
+    }
+
+    public long calculateSunset(long dayStartMillis) {
+
+        return calculateHorizonCrossing(calculateSolarNoon(dayStartMillis), 1);
+
+    }
+
+    // Sunrise, solar noon and sunset for consecutive UTC days starting at firstDayStartMillis.
+    // Days without a sunrise or sunset get NO_EVENT in that slot.
+    public void calculateEvents(long firstDayStartMillis, int days,
+                                long[] sunriseOut, long[] solarNoonOut, long[] sunsetOut) {
+
+        if (sunriseOut.length < days || solarNoonOut.length < days || sunsetOut.length < days) {
+            throw new IllegalArgumentException("Output arrays are shorter than the number of days");
+        }
+
+        for (int i = 0; i < days; i++) {
+            long noon = calculateSolarNoon(firstDayStartMillis + i * MILLIS_PER_DAY);
+            solarNoonOut[i] = noon;
+            sunriseOut[i] = calculateHorizonCrossing(noon, -1);
+            sunsetOut[i] = calculateHorizonCrossing(noon, 1);
+        }
+
+    }
+
+    // A whole calendar year of events in one call; returns the number of days written (365 or 366)
+    public int calculateYear(int year, long[] sunriseOut, long[] solarNoonOut, long[] sunsetOut) {
+
+        long firstDay = epochDay(year, 1, 1);
+        int days = (int) (epochDay(year + 1, 1, 1) - firstDay);
+        calculateEvents(firstDay * MILLIS_PER_DAY, days, sunriseOut, solarNoonOut, sunsetOut);
+        return days;
+
+    }
+
+    // direction -1 searches the morning before noon, +1 the evening after it
+    private long calculateHorizonCrossing(long noonMillis, int direction) {
+
+        originMillis = noonMillis;
+
+        // Polar night: the sun never reaches the horizon at noon.  Polar day: it is still up half a day later.
+        double atMidnight = altitudeAboveHorizon(direction * 12.0 * MILLIS_PER_HOUR);
+        double atNoon = altitudeAboveHorizon(0); // evaluated last so terms[] holds noon's declination
+        if (atNoon < 0 || atMidnight > 0) {
+            return NO_EVENT;
+        }
+
+        // Analytic semi-diurnal arc from noon's declination gives a bracket a few minutes wide
+        double declination = terms[0];
+        double latitude_rad = Math.toRadians(latitude);
+        double cosHourAngle = (Math.sin(Math.toRadians(SUNRISE_ALTITUDE)) - Math.sin(latitude_rad) * Math.sin(declination))
+                / (Math.cos(latitude_rad) * Math.cos(declination));
+        double estimate = direction * Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, cosHourAngle)))) / 15.0 * MILLIS_PER_HOUR;
+
+        double low = estimate - BRACKET_MILLIS;
+        double high = estimate + BRACKET_MILLIS;
+        double root = RootFinder.findRoot(altitudeAboveHorizon, low, high, TOLERANCE_MILLIS);
+
+        // Near the polar circles the estimate can be off by more than the window; fall back to the full half day
+        if (Double.isNaN(root)) {
+            root = direction < 0
+                    ? RootFinder.findRoot(altitudeAboveHorizon, -12.0 * MILLIS_PER_HOUR, atMidnight, 0, atNoon, TOLERANCE_MILLIS)
+                    : RootFinder.findRoot(altitudeAboveHorizon, 0, atNoon, 12.0 * MILLIS_PER_HOUR, atMidnight, TOLERANCE_MILLIS);
+        }
+
+        return Double.isNaN(root) ? NO_EVENT : originMillis + Math.round(root);
+
+    }
+
+    // Sun's altitude relative to the sunrise altitude, offsetMillis after originMillis
+    private double altitudeAboveHorizon(double offsetMillis) {
+
+        double days = SolarCalculator.daysSinceJ2000(originMillis + Math.round(offsetMillis));
+        SolarCalculator.calculateEquatorialCoordinates(days, terms);
+        SolarCalculator.calculateHorizontalCoordinates(days, latitude, longitude, terms[0], terms[1],
+                altitudeBuffer, azimuthBuffer, 0);
+        return altitudeBuffer[0] - SUNRISE_ALTITUDE;
+
+    }
+
+    // Hour angle minus the target, wrapped to (-180, 180] degrees, offsetMillis after originMillis
+    private double hourAngleFromTarget(double offsetMillis) {
+
+        double days = SolarCalculator.daysSinceJ2000(originMillis + Math.round(offsetMillis));
+        SolarCalculator.calculateEquatorialCoordinates(days, terms);
+        double hourAngle = Math.toDegrees(SolarCalculator.calculateHourAngle(
+                SolarCalculator.calculateLocalSiderealTime(days, longitude), terms[1]));
+
+        double difference = (hourAngle - targetHourAngle) % 360;
+        if (difference > 180) difference -= 360;
+        if (difference <= -180) difference += 360;
+        return difference;
+
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date (avoids java.time, which needs API 26 on Android)
+    static long epochDay(int year, int month, int day) {
+
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+
+    }
+
+}
@@ -0,0 +1,305 @@
+package com.example.sundial;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+Evaluates the sun's altitude and azimuth for many observers at once (heat-map
+grids, fleets of installations).  The observer-independent terms (declination,
+right ascension, sidereal time) are computed once per instant and shared by
+every observer; the per-observer work is split across cores with fork-join and
+written into flat primitive arrays.
+ */
+public class SolarGridEvaluator {
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+
+    // Points per leaf task; large enough that fork overhead is negligible next to the trig per point
+    private static final int DEFAULT_THRESHOLD = 8192;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public SolarGridEvaluator() {
+
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+
+    }
+
+    public SolarGridEvaluator(ForkJoinPool pool, int threshold) {
+
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+
+    }
+
+    // One instant, one result per observer (latitudes[i], longitudes[i])
+    public void evaluate(long timeInMillis, double[] latitudes, double[] longitudes,
+                         double[] altitudeOut, double[] azimuthOut) {
+
+        evaluate(new long[]{timeInMillis}, latitudes, longitudes, altitudeOut, azimuthOut);
+
+    }
+
+    // Every instant for every observer.  Results are laid out instant-major: [t * observers + i].
+    public void evaluate(long[] timesInMillis, double[] latitudes, double[] longitudes,
+                         double[] altitudeOut, double[] azimuthOut) {
+
+        int observers = latitudes.length;
+        if (longitudes.length != observers) {
+            throw new IllegalArgumentException("latitudes and longitudes must have the same length");
+        }
+        long points = (long) timesInMillis.length * observers;
+        if (points > Integer.MAX_VALUE || altitudeOut.length < points || azimuthOut.length < points) {
+            throw new IllegalArgumentException("Output arrays must hold times x observers = " + points + " values");
+        }
+        if (points == 0) {
+            return;
+        }
+
+        InstantTerms instants = new InstantTerms(timesInMillis);
+
+        double[] sinLatitude = new double[observers];
+        double[] cosLatitude = new double[observers];
+        double[] longitudeRadians = new double[observers];
+        for (int i = 0; i < observers; i++) {
+            double latitude_rad = latitudes[i] * DEGREES_TO_RADIANS;
+            sinLatitude[i] = Math.sin(latitude_rad);
+            cosLatitude[i] = Math.cos(latitude_rad);
+            longitudeRadians[i] = longitudes[i] * DEGREES_TO_RADIANS;
+        }
+
+        pool.invoke(new ObserverTask(0, (int) points, threshold, observers, instants,
+                sinLatitude, cosLatitude, longitudeRadians, altitudeOut, azimuthOut));
+
+    }
+
+    // Rectangular grid at one instant.  Results are row-major: [row * gridLongitudes.length + column].
+    // The hour angle only depends on the column and the latitude terms only on the row, so each point
+    // costs one asin and one atan2.
+    public void evaluateGrid(long timeInMillis, double[] gridLatitudes, double[] gridLongitudes,
+                             double[] altitudeOut, double[] azimuthOut) {
+
+        int rows = gridLatitudes.length;
+        int columns = gridLongitudes.length;
+        long points = (long) rows * columns;
+        if (points > Integer.MAX_VALUE || altitudeOut.length < points || azimuthOut.length < points) {
+            throw new IllegalArgumentException("Output arrays must hold rows x columns = " + points + " values");
+        }
+        if (points == 0) {
+            return;
+        }
+
+        InstantTerms instant = new InstantTerms(new long[]{timeInMillis});
+
+        double[] sinLatitude = new double[rows];
+        double[] cosLatitude = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            double latitude_rad = gridLatitudes[row] * DEGREES_TO_RADIANS;
+            sinLatitude[row] = Math.sin(latitude_rad);
+            cosLatitude[row] = Math.cos(latitude_rad);
+        }
+
+        double[] sinHourAngle = new double[columns];
+        double[] cosHourAngle = new double[columns];
+        for (int column = 0; column < columns; column++) {
+            double hourAngle_rad = instant.greenwichHourAngle[0] + gridLongitudes[column] * DEGREES_TO_RADIANS;
+            sinHourAngle[column] = Math.sin(hourAngle_rad);
+            cosHourAngle[column] = Math.cos(hourAngle_rad);
+        }
+
+        pool.invoke(new GridTask(0, (int) points, threshold, columns, instant.sinDeclination[0], instant.cosDeclination[0],
+                sinLatitude, cosLatitude, sinHourAngle, cosHourAngle, altitudeOut, azimuthOut));
+
+    }
+
+    // Observer-independent terms for each instant, computed once and shared by all observers
+    private static final class InstantTerms {
+
+        final double[] sinDeclination;
+        final double[] cosDeclination;
+        final double[] greenwichHourAngle; // radians; add the observer's longitude to get the local hour angle
+
+        InstantTerms(long[] timesInMillis) {
+
+            int count = timesInMillis.length;
+            sinDeclination = new double[count];
+            cosDeclination = new double[count];
+            greenwichHourAngle = new double[count];
+
+            double[] terms = new double[3];
+            for (int t = 0; t < count; t++) {
+                double days = SolarCalculator.daysSinceJ2000(timesInMillis[t]);
+                SolarCalculator.calculateEquatorialCoordinates(days, terms);
+                sinDeclination[t] = Math.sin(terms[0]);
+                cosDeclination[t] = Math.cos(terms[0]);
+                greenwichHourAngle[t] = (SolarCalculator.calculateLocalSiderealTime(days, 0) - terms[1]) * DEGREES_TO_RADIANS;
+            }
+
+        }
+
+    }
+
+    // Splits [from, to) in halves until it is below the threshold, then runs the leaf directly
+    private abstract static class RangeTask extends RecursiveAction {
+
+        final int from;
+        final int to;
+        final int threshold;
+
+        RangeTask(int from, int to, int threshold) {
+
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from <= threshold) {
+                computeRange();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(subtask(from, middle), subtask(middle, to));
+
+        }
+
+        abstract RangeTask subtask(int from, int to);
+
+        abstract void computeRange();
+
+    }
+
+    private static final class ObserverTask extends RangeTask {
+
+        private final int observers;
+        private final InstantTerms instants;
+        private final double[] sinLatitude;
+        private final double[] cosLatitude;
+        private final double[] longitudeRadians;
+        private final double[] altitudeOut;
+        private final double[] azimuthOut;
+
+        ObserverTask(int from, int to, int threshold, int observers, InstantTerms instants,
+                     double[] sinLatitude, double[] cosLatitude, double[] longitudeRadians,
+                     double[] altitudeOut, double[] azimuthOut) {
+
+            super(from, to, threshold);
+            this.observers = observers;
+            this.instants = instants;
+            this.sinLatitude = sinLatitude;
+            this.cosLatitude = cosLatitude;
+            this.longitudeRadians = longitudeRadians;
+            this.altitudeOut = altitudeOut;
+            this.azimuthOut = azimuthOut;
+
+        }
+
+        @Override
+        RangeTask subtask(int from, int to) {
+
+            return new ObserverTask(from, to, threshold, observers, instants,
+                    sinLatitude, cosLatitude, longitudeRadians, altitudeOut, azimuthOut);
+
+        }
+
+        @Override
+        void computeRange() {
+
+            int t = from / observers;
+            int i = from % observers;
+            for (int index = from; index < to; index++) {
+                double hourAngle_rad = instants.greenwichHourAngle[t] + longitudeRadians[i];
+                horizontal(sinLatitude[i], cosLatitude[i], instants.sinDeclination[t], instants.cosDeclination[t],
+                        Math.sin(hourAngle_rad), Math.cos(hourAngle_rad), altitudeOut, azimuthOut, index);
+
+                if (++i == observers) {
+                    i = 0;
+                    t++;
+                }
+            }
+
+        }
+
+    }
+
+    private static final class GridTask extends RangeTask {
+
+        private final int columns;
+        private final double sinDeclination;
+        private final double cosDeclination;
+        private final double[] sinLatitude;
+        private final double[] cosLatitude;
+        private final double[] sinHourAngle;
+        private final double[] cosHourAngle;
+        private final double[] altitudeOut;
+        private final double[] azimuthOut;
+
+        GridTask(int from, int to, int threshold, int columns, double sinDeclination, double cosDeclination,
+                 double[] sinLatitude, double[] cosLatitude, double[] sinHourAngle, double[] cosHourAngle,
+                 double[] altitudeOut, double[] azimuthOut) {
+
+            super(from, to, threshold);
+            this.columns = columns;
+            this.sinDeclination = sinDeclination;
+            this.cosDeclination = cosDeclination;
+            this.sinLatitude = sinLatitude;
+            this.cosLatitude = cosLatitude;
+            this.sinHourAngle = sinHourAngle;
+            this.cosHourAngle = cosHourAngle;
+            this.altitudeOut = altitudeOut;
+            this.azimuthOut = azimuthOut;
+
+        }
+
+        @Override
+        RangeTask subtask(int from, int to) {
+
+            return new GridTask(from, to, threshold, columns, sinDeclination, cosDeclination,
+                    sinLatitude, cosLatitude, sinHourAngle, cosHourAngle, altitudeOut, azimuthOut);
+
+        }
+
+        @Override
+        void computeRange() {
+
+            int row = from / columns;
+            int column = from % columns;
+            for (int index = from; index < to; index++) {
+                horizontal(sinLatitude[row], cosLatitude[row], sinDeclination, cosDeclination,
+                        sinHourAngle[column], cosHourAngle[column], altitudeOut, azimuthOut, index);
+
+                if (++column == columns) {
+                    column = 0;
+                    row++;
+                }
+            }
+
+        }
+
+    }
+
+    // Same conversion as SolarCalculator, with tan(declination) folded into the atan2 arguments
+    // (both scaled by cos(declination) > 0) so the per-point cost is one asin and one atan2.
+    private static void horizontal(double sinLatitude, double cosLatitude, double sinDeclination, double cosDeclination,
+                                   double sinHourAngle, double cosHourAngle,
+                                   double[] altitudeOut, double[] azimuthOut, int index) {
+
+        double altitude_rad = Math.asin(sinLatitude * sinDeclination + cosLatitude * cosDeclination * cosHourAngle);
+        altitudeOut[index] = altitude_rad * RADIANS_TO_DEGREES;
+
+        double azimuth_rad = Math.atan2(-sinHourAngle * cosDeclination,
+                cosLatitude * sinDeclination - sinLatitude * cosHourAngle * cosDeclination);
+        double azimuth_deg = azimuth_rad * RADIANS_TO_DEGREES;
+        azimuthOut[index] = azimuth_deg < 0 ? azimuth_deg + 360 : azimuth_deg;
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.example.sundial;
+
+/*
+A way of computing the sun's altitude and azimuth, so callers can trade
+accuracy for speed per call.  Three tiers are provided:
+
+    FAST      Spencer's Fourier series for declination and the equation of
+              time; about 0.5 degrees, for animation and scrubbing.
+    STANDARD  The low-precision almanac formulas SolarCalculator has always
+              used; about 0.015 degrees.
+    PRECISE   NREL SPA-class: abridged VSOP87 earth, nutation, aberration,
+              delta T, topocentric parallax and refraction; about 0.0003
+              degrees, for survey use.
+
+STANDARD_FAST_MATH evaluates STANDARD's formulas with FastMath's polynomial
+trig, staying within 0.01 degrees of STANDARD.
+
+FAST, STANDARD and STANDARD_FAST_MATH return the geometric altitude; PRECISE returns the apparent
+altitude including refraction.  Azimuth is degrees clockwise from North, 0 -
+360.  Implementations are stateless and thread-safe.
+ */
+public interface SolarPositionAlgorithm {
+
+    SolarPositionAlgorithm FAST = new FastSolarPosition();
+    SolarPositionAlgorithm STANDARD = new StandardSolarPosition();
+    SolarPositionAlgorithm PRECISE = new PreciseSolarPosition();
+    SolarPositionAlgorithm STANDARD_FAST_MATH = new FastMathSolarPosition();
+
+    // Writes the sun's altitude and azimuth in degrees for the observer at timeInMillis into slot [index]
+    void calculate(double latitude, double longitude, long timeInMillis,
+                   double[] altitudeOut, double[] azimuthOut, int index);
+
+}
@@ -0,0 +1,89 @@
+package com.example.sundial;
+
+/*
+One published instant of the dial: where the body is and the shadow it casts
+on a level phone.  Pitch and roll corrections are applied by each consumer from
+its own orientation reading.  Instances are immutable.
+ */
+public final class SolarState {
+
+    private final long timeInMillis;
+    private final CelestialBody body;
+    private final double altitude;          // degrees
+    private final double azimuth;           // degrees
+    private final double shadowLength;      // same units as ShadowManager's min/max length
+    private final double shadowDirection;   // degrees, compass (0 = North, clockwise)
+    private final double shadowWidth;       // degrees
+    private final double illuminatedFraction; // 1 for the sun
+
+    public SolarState(long timeInMillis, CelestialBody body, double altitude, double azimuth,
+                      double shadowLength, double shadowDirection, double shadowWidth, double illuminatedFraction) {
+
+        this.timeInMillis = timeInMillis;
+        this.body = body;
+        this.altitude = altitude;
+        this.azimuth = azimuth;
+        this.shadowLength = shadowLength;
+        this.shadowDirection = shadowDirection;
+        this.shadowWidth = shadowWidth;
+        this.illuminatedFraction = illuminatedFraction;
+
+    }
+
+    public long getTimeInMillis() {
+
+        return timeInMillis;
+
+    }
+
+    public CelestialBody getBody() {
+
+        return body;
+
+    }
+
+    public double getAltitude() {
+
+        return altitude;
+
+    }
+
+    public double getAzimuth() {
+
+        return azimuth;
+
+    }
+
+    public double getShadowLength() {
+
+        return shadowLength;
+
+    }
+
+    public double getShadowDirection() {
+
+        return shadowDirection;
+
+    }
+
+    public double getShadowWidth() {
+
+        return shadowWidth;
+
+    }
+
+    public double getIlluminatedFraction() {
+
+        return illuminatedFraction;
+
+    }
+
+    @Override
+    public String toString() {
+
+        return body + " at " + timeInMillis + ": altitude " + altitude + ", azimuth " + azimuth
+                + ", shadow " + shadowLength + " toward " + shadowDirection;
+
+    }
+
+}
@@ -0,0 +1,361 @@
+package com.example.sundial;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+One shared stream of SolarStates for every consumer of the dial (the view,
+widgets, logging).  Each tick computes the current body's position once on the
+SolarComputeExecutor and hands the same state to every subscriber.
+
+Subscribers only receive what they request.  A subscriber without demand keeps
+just the newest undelivered state, so a slow consumer sees the latest position
+when it asks again rather than a backlog.  Ticks run only while there is a
+subscriber and an observer location; the last cancel stops them.
+
+States are delivered on the compute thread, or on the thread calling request()
+when a conflated state is waiting; consumers that touch views hop threads
+themselves.
+ */
+public class SolarStatePublisher implements SolarStateStream.Publisher<SolarState> {
+
+    // Runs the ticks; tests substitute one they step by hand
+    interface TickScheduler {
+
+        Future<?> schedule(Runnable tick, long delayMillis);
+
+        void shutdown();
+
+    }
+
+    private final SolarComputeExecutor computeExecutor;
+    private final TickScheduler tickScheduler;
+    private final ShadowManager shadowManager;
+    private final CopyOnWriteArrayList<StateSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private volatile long tickMillis;
+    private volatile CelestialBody body = CelestialBody.SUN;
+    private volatile double latitude;
+    private volatile double longitude;
+    private volatile boolean hasObserver;
+    private volatile SolarState latestState;
+
+    // Only used from the tick thread
+    private volatile ShadowRecomputeScheduler recomputeScheduler;
+
+    // Guarded by this; a tick reschedules itself only while its generation is current
+    private Future<?> nextTick;
+    private long tickGeneration;
+
+    public SolarStatePublisher(SolarComputeExecutor computeExecutor, ShadowManager shadowManager, long tickMillis) {
+
+        this(computeExecutor, shadowManager, tickMillis, new ThreadTickScheduler());
+
+    }
+
+    SolarStatePublisher(SolarComputeExecutor computeExecutor, ShadowManager shadowManager, long tickMillis,
+                        TickScheduler tickScheduler) {
+
+        this.computeExecutor = computeExecutor;
+        this.shadowManager = shadowManager;
+        this.tickScheduler = tickScheduler;
+        setTickMillis(tickMillis);
+
+    }
+
+    // Takes effect from the next tick
+    public void setTickMillis(long tickMillis) {
+
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+
+    }
+
+    public long getTickMillis() {
+
+        return tickMillis;
+
+    }
+
+    // With a scheduler, sun ticks are stretched until the shadow will next visibly move; the tick
+    // rate is then the fastest the stream runs.  The moon always ticks at the plain rate.
+    public void setRecomputeScheduler(ShadowRecomputeScheduler recomputeScheduler) {
+
+        this.recomputeScheduler = recomputeScheduler;
+
+    }
+
+    // Nothing is produced before the first location; a new one is computed straight away
+    public void setObserver(double latitude, double longitude) {
+
+        this.latitude = latitude;
+        this.longitude = longitude;
+        hasObserver = true;
+        refresh();
+
+    }
+
+    public void setBody(CelestialBody body) {
+
+        this.body = body;
+        refresh();
+
+    }
+
+    // Ticks now instead of waiting for the next scheduled tick (no-op without subscribers)
+    public synchronized void refresh() {
+
+        stopTicking();
+        startTicking();
+
+    }
+
+    // The most recently published state, or null before the first one
+    public SolarState getLatestState() {
+
+        return latestState;
+
+    }
+
+    synchronized boolean isProducing() {
+
+        return nextTick != null;
+
+    }
+
+    @Override
+    public void subscribe(SolarStateStream.Subscriber<? super SolarState> subscriber) {
+
+        StateSubscription subscription = new StateSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (subscription.cancelled) return;
+
+        // A stream that is already running has a current state, so a late subscriber need not wait a tick for it
+        SolarState latest = latestState;
+        if (latest != null && isProducing()) {
+            subscription.offer(latest);
+        }
+        subscriptions.add(subscription);
+        startTicking();
+
+    }
+
+    // Stops ticking and releases the tick thread; a later subscribe starts a new one
+    public synchronized void shutdown() {
+
+        stopTicking();
+        tickScheduler.shutdown();
+
+    }
+
+    private synchronized void startTicking() {
+
+        if (nextTick != null || !hasObserver || subscriptions.isEmpty()) return;
+
+        long generation = ++tickGeneration;
+        nextTick = tickScheduler.schedule(() -> tick(generation), 0);
+
+    }
+
+    private synchronized void stopTicking() {
+
+        tickGeneration++;
+        if (nextTick != null) {
+            nextTick.cancel(false);
+            nextTick = null;
+        }
+
+    }
+
+    private void tick(long generation) {
+
+        long nowMillis = System.currentTimeMillis();
+        CelestialBody tickBody = body;
+        double tickLatitude = latitude;
+        double tickLongitude = longitude;
+
+        // Checked and submitted under the lock stopTicking() takes, so once the last subscriber has gone
+        // no tick can reach the compute executor (and restart its thread after the owner shut it down)
+        synchronized (this) {
+            if (generation != tickGeneration) return;
+            computeExecutor.submit(tickBody, tickLatitude, tickLongitude, nowMillis,
+                    (altitude, azimuth) -> publish(createState(nowMillis, tickBody, altitude, azimuth)));
+        }
+
+        long delay = tickMillis;
+        ShadowRecomputeScheduler scheduler = recomputeScheduler;
+        if (tickBody == CelestialBody.SUN && scheduler != null) {
+            delay = Math.max(delay, scheduler.calculateDelay(tickLatitude, tickLongitude, nowMillis));
+        }
+
+        synchronized (this) {
+            if (generation == tickGeneration) {
+                nextTick = tickScheduler.schedule(() -> tick(generation), delay);
+            }
+        }
+
+    }
+
+    private SolarState createState(long timeInMillis, CelestialBody stateBody, double altitude, double azimuth) {
+
+        double length = shadowManager.calculateShadowLength(altitude, 0);
+        double direction = shadowManager.calculateShadowDirection(azimuth, 0);
+        double width = shadowManager.calculateAngularWidth(direction);
+        double illuminated = stateBody == CelestialBody.MOON ? LunarCalculator.calculateIlluminatedFraction(timeInMillis) : 1;
+        return new SolarState(timeInMillis, stateBody, altitude, azimuth, length, direction, width, illuminated);
+
+    }
+
+    private void publish(SolarState state) {
+
+        latestState = state;
+        for (StateSubscription subscription : subscriptions) {
+            subscription.offer(state);
+        }
+
+    }
+
+    private void remove(StateSubscription subscription) {
+
+        subscriptions.remove(subscription);
+        synchronized (this) {
+            if (subscriptions.isEmpty()) {
+                stopTicking();
+            }
+        }
+
+    }
+
+    private final class StateSubscription implements SolarStateStream.Subscription {
+
+        private final SolarStateStream.Subscriber<? super SolarState> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+
+        // The newest state not yet delivered; a newer one replaces it
+        private final AtomicReference<SolarState> pending = new AtomicReference<>();
+
+        // Serializes signals: whichever thread gets it from 0 delivers, the others just mark more work
+        private final AtomicInteger work = new AtomicInteger();
+
+        private volatile Throwable error;
+        volatile boolean cancelled;
+
+        StateSubscription(SolarStateStream.Subscriber<? super SolarState> subscriber) {
+
+            this.subscriber = subscriber;
+
+        }
+
+        @Override
+        public void request(long n) {
+
+            if (cancelled) return;
+
+            if (n <= 0) {
+                error = new IllegalArgumentException("request must be positive: " + n);
+            } else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n; // saturates at unbounded
+                } while (!demand.compareAndSet(current, next));
+            }
+            drain();
+
+        }
+
+        @Override
+        public void cancel() {
+
+            if (cancelled) return;
+            cancelled = true;
+            pending.set(null);
+            remove(this);
+
+        }
+
+        void offer(SolarState state) {
+
+            if (cancelled) return;
+            pending.set(state);
+            drain();
+
+        }
+
+        private void drain() {
+
+            if (work.getAndIncrement() != 0) return;
+
+            int missed = 1;
+            do {
+                while (!cancelled) {
+                    Throwable failure = error;
+                    if (failure != null) {
+                        cancel();
+                        subscriber.onError(failure);
+                        return;
+                    }
+                    if (demand.get() == 0) break;
+                    SolarState state = pending.getAndSet(null);
+                    if (state == null) break;
+
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(state);
+                    } catch (RuntimeException e) {
+                        // A throwing subscriber is dropped rather than left blocking the stream
+                        cancel();
+                        subscriber.onError(e);
+                        return;
+                    }
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+
+        }
+
+    }
+
+    // One daemon thread, started by the first tick after construction or shutdown()
+    private static final class ThreadTickScheduler implements TickScheduler {
+
+        private ScheduledExecutorService executor;
+
+        @Override
+        public synchronized Future<?> schedule(Runnable tick, long delayMillis) {
+
+            if (executor == null) {
+                executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "SolarStateTick");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return executor.schedule(tick, delayMillis, TimeUnit.MILLISECONDS);
+
+        }
+
+        @Override
+        public synchronized void shutdown() {
+
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+
+        }
+
+    }
+
+}
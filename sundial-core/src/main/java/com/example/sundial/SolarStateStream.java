@@ -0,0 +1,41 @@
+package com.example.sundial;
+
+/*
+The publish/subscribe contract for streams of solar states, with the same
+shape and rules as java.util.concurrent.Flow (which Android only has from API
+30).  A subscriber receives nothing until it requests it; request(n) adds n to
+its outstanding demand, and signals to one subscriber never overlap.
+ */
+public final class SolarStateStream {
+
+    public interface Publisher<T> {
+
+        void subscribe(Subscriber<? super T> subscriber);
+
+    }
+
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+
+    }
+
+    public interface Subscription {
+
+        // n must be positive; Long.MAX_VALUE means unbounded
+        void request(long n);
+
+        void cancel();
+
+    }
+
+    private SolarStateStream() {
+    }
+
+}
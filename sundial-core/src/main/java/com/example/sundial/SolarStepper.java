@@ -0,0 +1,177 @@
+package com.example.sundial;
+
+/*
+Steps one observer's sun forward in fixed increments, for time-lapse and
+scrubbing.  Sidereal time advances at a constant rate and the sun's right
+ascension and declination barely curve over an hour or two, so within a block
+of steps the hour angle and declination each advance by a constant angle:
+their sines and cosines are rotated by precomputed increments instead of being
+recomputed, leaving one asin and one atan2 per sample.
+
+At each block boundary the state is re-synchronised to SolarCalculator's exact
+values, so rounding and the curvature of the sun's motion cannot accumulate
+past one block.  Steps longer than a block are computed exactly every time.
+Instances are not thread-safe.
+ */
+public class SolarStepper {
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+    private static final double MILLIS_PER_DAY = 86400000.0;
+
+    // Degrees of sidereal time per day, as in SolarCalculator.calculateLocalSiderealTime
+    private static final double SIDEREAL_DEGREES_PER_DAY = 360.98564736629;
+
+    // Longest stretch stepped without re-synchronising; keeps the drift under 1e-5 degrees in altitude and
+    // 3e-5 degrees in azimuth (away from the zenith, where azimuth is ill-defined)
+    static final long RESYNC_SPAN_MILLIS = 2 * 3600000L;
+
+    private final double latitude;
+    private final double longitude;
+    private final long stepMillis;
+    private final int resyncInterval;   // steps per block
+
+    private final double sinLatitude;
+    private final double cosLatitude;
+
+    private long timeInMillis;          // time of the next sample
+    private int stepsUntilResync;
+
+    // Rotating state: hour angle and declination of the next sample, and their per-step increments
+    private double sinHourAngle;
+    private double cosHourAngle;
+    private double sinDeclination;
+    private double cosDeclination;
+    private double sinHourAngleStep;
+    private double cosHourAngleStep;
+    private double sinDeclinationStep;
+    private double cosDeclinationStep;
+
+    // Exact state at the end of the current block, which becomes the start of the next one
+    private double blockEndHourAngle;   // radians
+    private double blockEndDeclination; // radians
+    private double blockEndRightAscension; // degrees
+
+    private final double[] terms = new double[3];
+
+    // stepMillis may be negative to step backwards
+    public SolarStepper(double latitude, double longitude, long startMillis, long stepMillis) {
+
+        if (stepMillis == 0) {
+            throw new IllegalArgumentException("stepMillis must not be zero");
+        }
+
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.stepMillis = stepMillis;
+        this.resyncInterval = (int) Math.max(1, RESYNC_SPAN_MILLIS / Math.abs(stepMillis));
+        this.sinLatitude = Math.sin(latitude * DEGREES_TO_RADIANS);
+        this.cosLatitude = Math.cos(latitude * DEGREES_TO_RADIANS);
+        reset(startMillis);
+
+    }
+
+    // Jumps to a new start time with one exact calculation
+    public void reset(long startMillis) {
+
+        timeInMillis = startMillis;
+        double days = SolarCalculator.daysSinceJ2000(startMillis);
+        SolarCalculator.calculateEquatorialCoordinates(days, terms);
+        blockEndDeclination = terms[0];
+        blockEndRightAscension = terms[1];
+        blockEndHourAngle = SolarCalculator.calculateHourAngle(SolarCalculator.calculateLocalSiderealTime(days, longitude), terms[1]);
+        startBlock();
+
+    }
+
+    public long getTimeInMillis() {
+
+        return timeInMillis;
+
+    }
+
+    public long getStepMillis() {
+
+        return stepMillis;
+
+    }
+
+    public int getResyncInterval() {
+
+        return resyncInterval;
+
+    }
+
+    // Writes the altitude/azimuth (degrees) at getTimeInMillis() into slot [index], then advances one step
+    public void next(double[] altitudeOut, double[] azimuthOut, int index) {
+
+        if (stepsUntilResync == 0) {
+            startBlock();
+        }
+
+        double altitude_rad = Math.asin(sinLatitude * sinDeclination + cosLatitude * cosDeclination * cosHourAngle);
+        altitudeOut[index] = altitude_rad * RADIANS_TO_DEGREES;
+
+        double azimuth_rad = Math.atan2(-sinHourAngle, cosLatitude * sinDeclination / cosDeclination - sinLatitude * cosHourAngle);
+        azimuthOut[index] = (azimuth_rad * RADIANS_TO_DEGREES + 360) % 360;
+
+        double sin = sinHourAngle;
+        sinHourAngle = sin * cosHourAngleStep + cosHourAngle * sinHourAngleStep;
+        cosHourAngle = cosHourAngle * cosHourAngleStep - sin * sinHourAngleStep;
+
+        sin = sinDeclination;
+        sinDeclination = sin * cosDeclinationStep + cosDeclination * sinDeclinationStep;
+        cosDeclination = cosDeclination * cosDeclinationStep - sin * sinDeclinationStep;
+
+        timeInMillis += stepMillis;
+        stepsUntilResync--;
+
+    }
+
+    // Fills the arrays with consecutive steps from getTimeInMillis(); the stepper ends just past the last one
+    public void fill(double[] altitudeOut, double[] azimuthOut, int count) {
+
+        if (altitudeOut.length < count || azimuthOut.length < count) {
+            throw new IllegalArgumentException("Output arrays are shorter than the sample count");
+        }
+
+        for (int i = 0; i < count; i++) {
+            next(altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    // Exact state at timeInMillis (the previous block's end) and at the end of this block, from which the
+    // constant per-step rotations are derived
+    private void startBlock() {
+
+        sinHourAngle = Math.sin(blockEndHourAngle);
+        cosHourAngle = Math.cos(blockEndHourAngle);
+        sinDeclination = Math.sin(blockEndDeclination);
+        cosDeclination = Math.cos(blockEndDeclination);
+        double startDeclination = blockEndDeclination;
+        double startRightAscension = blockEndRightAscension;
+
+        long blockMillis = resyncInterval * stepMillis;
+        double endDays = SolarCalculator.daysSinceJ2000(timeInMillis + blockMillis);
+        SolarCalculator.calculateEquatorialCoordinates(endDays, terms);
+        blockEndDeclination = terms[0];
+        blockEndRightAscension = terms[1];
+        blockEndHourAngle = SolarCalculator.calculateHourAngle(SolarCalculator.calculateLocalSiderealTime(endDays, longitude), terms[1]);
+
+        // The hour angle's total turn over the block, including whole sidereal days, minus the sun's own motion
+        double rightAscensionChange = ((blockEndRightAscension - startRightAscension + 540) % 360) - 180;
+        double hourAngleChange = SIDEREAL_DEGREES_PER_DAY * blockMillis / MILLIS_PER_DAY - rightAscensionChange;
+
+        double hourAngleStep = hourAngleChange / resyncInterval * DEGREES_TO_RADIANS;
+        double declinationStep = (blockEndDeclination - startDeclination) / resyncInterval;
+        sinHourAngleStep = Math.sin(hourAngleStep);
+        cosHourAngleStep = Math.cos(hourAngleStep);
+        sinDeclinationStep = Math.sin(declinationStep);
+        cosDeclinationStep = Math.cos(declinationStep);
+
+        stepsUntilResync = resyncInterval;
+
+    }
+
+}
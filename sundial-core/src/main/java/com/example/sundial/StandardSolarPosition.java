@@ -0,0 +1,18 @@
+package com.example.sundial;
+
+/*
+The almanac formulas SolarCalculator has always used, behind the
+SolarPositionAlgorithm interface.
+ */
+public final class StandardSolarPosition implements SolarPositionAlgorithm {
+
+    @Override
+    public void calculate(double latitude, double longitude, long timeInMillis,
+                          double[] altitudeOut, double[] azimuthOut, int index) {
+
+        SolarCalculator.calculateAltitudeAndAzimuth(SolarCalculator.daysSinceJ2000(timeInMillis),
+                latitude, longitude, altitudeOut, azimuthOut, index);
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ChebyshevEphemerisTest {
+
+    private static final long YEAR_2024 = 1704067200000L; // 2024-01-01 00:00 UTC
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    @Test
+    public void matchesSolarCalculatorWithinTheReportedBound() {
+        long end = YEAR_2024 + 3 * 366 * MILLIS_PER_DAY;
+        ChebyshevEphemeris ephemeris = new ChebyshevEphemeris(YEAR_2024, end);
+        assertTrue(ephemeris.getMaxError() < 1e-6);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            long time = YEAR_2024 + (long) (random.nextDouble() * (end - YEAR_2024));
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+
+            double[] expected = new SolarCalculator(latitude, longitude, time).calculateAltitudeAndAzimuth();
+            double[] actual = ephemeris.calculateAltitudeAndAzimuth(latitude, longitude, time);
+
+            assertEquals(expected[0], actual[0], 1e-5);
+            if (Math.abs(expected[0]) < 89) { // azimuth is ill-conditioned at the zenith
+                double azimuthError = Math.abs(expected[1] - actual[1]);
+                assertEquals(0, Math.min(azimuthError, 360 - azimuthError), 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public void coordinatesStayWithinTheBoundBetweenCheckPoints() {
+        long end = YEAR_2024 + 96 * MILLIS_PER_DAY;
+        assertWithinBound(new ChebyshevEphemeris(YEAR_2024, end));
+        assertWithinBound(new ChebyshevEphemeris(YEAR_2024, end, 32 * MILLIS_PER_DAY, 5)); // coarse, larger errors
+    }
+
+    private static void assertWithinBound(ChebyshevEphemeris ephemeris) {
+        double[] terms = new double[3];
+        double worst = 0;
+        for (long time = ephemeris.getStartMillis(); time <= ephemeris.getEndMillis(); time += 600000L) {
+            SolarCalculator.calculateEquatorialCoordinates(SolarCalculator.daysSinceJ2000(time), terms);
+            double rightAscensionError = Math.abs(ephemeris.getRightAscension(time) - terms[1]);
+            worst = Math.max(worst, Math.abs(ephemeris.getDeclination(time) - Math.toDegrees(terms[0])));
+            worst = Math.max(worst, Math.min(rightAscensionError, 360 - rightAscensionError));
+        }
+        assertTrue(worst + " exceeds " + ephemeris.getMaxError(), worst <= ephemeris.getMaxError());
+    }
+
+    @Test
+    public void rightAscensionStaysContinuousAcrossTheEquinox() {
+        // The sun's right ascension wraps from 360 to 0 at the March equinox, 2024-03-20
+        long equinox = YEAR_2024 + 79 * MILLIS_PER_DAY;
+        ChebyshevEphemeris ephemeris = new ChebyshevEphemeris(equinox - 10 * MILLIS_PER_DAY, equinox + 10 * MILLIS_PER_DAY,
+                20 * MILLIS_PER_DAY, ChebyshevEphemeris.DEFAULT_COEFFICIENTS);
+
+        double[] terms = new double[3];
+        for (long time = ephemeris.getStartMillis(); time <= ephemeris.getEndMillis(); time += 3600000L) {
+            SolarCalculator.calculateEquatorialCoordinates(SolarCalculator.daysSinceJ2000(time), terms);
+            double error = Math.abs(ephemeris.getRightAscension(time) - terms[1]);
+            assertEquals(0, Math.min(error, 360 - error), 1e-6);
+            assertEquals(Math.toDegrees(terms[0]), ephemeris.getDeclination(time), 1e-6);
+        }
+    }
+
+    @Test
+    public void fit_meetsTheRequestedTolerance() {
+        long end = YEAR_2024 + 366 * MILLIS_PER_DAY;
+        ChebyshevEphemeris loose = ChebyshevEphemeris.fit(YEAR_2024, end, 1e-3);
+        ChebyshevEphemeris tight = ChebyshevEphemeris.fit(YEAR_2024, end, 1e-10);
+
+        assertTrue(loose.getMaxError() <= 1e-3);
+        assertTrue(tight.getMaxError() <= 1e-10);
+    }
+
+    @Test
+    public void batch_coversTheEndOfTheRange() {
+        long end = YEAR_2024 + 45 * MILLIS_PER_DAY; // not a whole number of segments
+        ChebyshevEphemeris ephemeris = new ChebyshevEphemeris(YEAR_2024, end);
+        long[] times = {YEAR_2024, YEAR_2024 + 40 * MILLIS_PER_DAY, end};
+        double[] altitudes = new double[3];
+        double[] azimuths = new double[3];
+
+        ephemeris.calculateBatch(51.5, -0.12, times, altitudes, azimuths);
+
+        for (int i = 0; i < times.length; i++) {
+            double[] expected = new SolarCalculator(51.5, -0.12, times[i]).calculateAltitudeAndAzimuth();
+            assertEquals(expected[0], altitudes[i], 1e-5);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outsideTheRange_isRejected() {
+        new ChebyshevEphemeris(YEAR_2024, YEAR_2024 + MILLIS_PER_DAY).getDeclination(YEAR_2024 - 1);
+    }
+
+}
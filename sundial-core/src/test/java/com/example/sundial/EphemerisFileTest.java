@@ -0,0 +1,87 @@
+package com.example.sundial;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EphemerisFileTest {
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mappedFile_evaluatesExactlyLikeTheFittedEphemeris() throws Exception {
+        ChebyshevEphemeris fitted = new ChebyshevEphemeris(EphemerisFile.yearStartMillis(2024), EphemerisFile.yearStartMillis(2026));
+        File file = folder.newFile("solar.eph");
+        EphemerisFile.write(fitted, file);
+
+        ChebyshevEphemeris mapped = EphemerisFile.map(file);
+
+        assertEquals(fitted.getStartMillis(), mapped.getStartMillis());
+        assertEquals(fitted.getEndMillis(), mapped.getEndMillis());
+        assertEquals(fitted.getMaxError(), mapped.getMaxError(), 0);
+        for (long time = fitted.getStartMillis(); time < fitted.getEndMillis(); time += 7 * MILLIS_PER_DAY + 3600000L) {
+            assertArrayEquals(fitted.calculateAltitudeAndAzimuth(40.7, -74.0, time),
+                    mapped.calculateAltitudeAndAzimuth(40.7, -74.0, time), 0);
+        }
+    }
+
+    @Test
+    public void oneMapping_servesManyThreads() throws Exception {
+        File file = folder.newFile("solar.eph");
+        EphemerisFile.write(new ChebyshevEphemeris(EphemerisFile.yearStartMillis(2024), EphemerisFile.yearStartMillis(2025)), file);
+        ChebyshevEphemeris shared = EphemerisFile.map(file);
+        AtomicInteger mismatches = new AtomicInteger();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            double latitude = -60 + 40 * t;
+            threads[t] = new Thread(() -> {
+                for (long time = shared.getStartMillis(); time < shared.getEndMillis(); time += 6 * 3600000L) {
+                    double[] expected = new SolarCalculator(latitude, 10, time).calculateAltitudeAndAzimuth();
+                    if (Math.abs(shared.calculateAltitudeAndAzimuth(latitude, 10, time)[0] - expected[0]) > 1e-5) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, mismatches.get());
+    }
+
+    @Test
+    public void read_rejectsTruncatedFiles() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EphemerisFile.write(new ChebyshevEphemeris(EphemerisFile.yearStartMillis(2024), EphemerisFile.yearStartMillis(2025)), bytes);
+        byte[] truncated = new byte[bytes.size() - 8];
+        System.arraycopy(bytes.toByteArray(), 0, truncated, 0, truncated.length);
+
+        try {
+            EphemerisFile.read(ByteBuffer.wrap(truncated));
+            fail("Truncated file was accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void yearStartMillis_isMidnightOnNewYearsDay() {
+        assertEquals(0L, EphemerisFile.yearStartMillis(1970));
+        assertEquals(1704067200000L, EphemerisFile.yearStartMillis(2024));
+        assertEquals(951868800000L - 60 * MILLIS_PER_DAY, EphemerisFile.yearStartMillis(2000)); // 2000-03-01 less a leap January and February
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FastMathTest {
+
+    // Budget for the fast-math solar position against the standard one
+    private static final double MAX_POSITION_ERROR_DEGREES = 0.01;
+
+    private static final long YEAR_1950 = -631152000000L;
+    private static final long YEAR_2100 = 4102444800000L;
+
+    @Test
+    public void sinAndCos_stayWithinTheirBound() {
+        double worst = 0;
+        for (double x = -1e4; x <= 1e4; x += 0.0009371) {
+            worst = Math.max(worst, Math.abs(FastMath.sin(x) - Math.sin(x)));
+            worst = Math.max(worst, Math.abs(FastMath.cos(x) - Math.cos(x)));
+        }
+        assertTrue("worst error " + worst, worst <= FastMath.SIN_COS_MAX_ERROR);
+    }
+
+    @Test
+    public void asin_staysWithinItsBound() {
+        double worst = Math.abs(FastMath.asin(1) - Math.asin(1));
+        for (double x = -1; x <= 1; x += 1e-6) {
+            worst = Math.max(worst, Math.abs(FastMath.asin(x) - Math.asin(x)));
+        }
+        assertTrue("worst error " + worst, worst <= FastMath.ASIN_MAX_ERROR);
+    }
+
+    @Test
+    public void atan2_staysWithinItsBoundInEveryQuadrant() {
+        double worst = 0;
+        for (double angle = -Math.PI; angle <= Math.PI; angle += 1e-5) {
+            for (double radius : new double[]{1e-9, 1, 1e9}) {
+                double y = radius * Math.sin(angle);
+                double x = radius * Math.cos(angle);
+                worst = Math.max(worst, Math.abs(FastMath.atan2(y, x) - Math.atan2(y, x)));
+            }
+        }
+        assertTrue("worst error " + worst, worst <= FastMath.ATAN2_MAX_ERROR);
+        assertEquals(0, FastMath.atan2(0, 0), 0);
+    }
+
+    // Every latitude, a spread of longitudes, and instants across 150 years at an odd stride so every hour
+    // angle and season is visited
+    @Test
+    public void solarPosition_staysWithinTheBudgetAcrossTheWholeDomain() {
+        double[] expectedAltitude = new double[1];
+        double[] expectedAzimuth = new double[1];
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        double worstAltitude = 0;
+        double worstSeparation = 0;
+
+        for (double latitude = -90; latitude <= 90; latitude += 2.5) {
+            for (double longitude = -180; longitude <= 180; longitude += 15) {
+                for (long time = YEAR_1950; time < YEAR_2100; time += 37 * 86400000L + 26000000L) {
+                    double days = SolarCalculator.daysSinceJ2000(time);
+                    SolarCalculator.calculateAltitudeAndAzimuth(days, latitude, longitude, expectedAltitude, expectedAzimuth, 0);
+                    FastMathSolarPosition.calculateAltitudeAndAzimuth(days, latitude, longitude, altitude, azimuth, 0);
+
+                    worstAltitude = Math.max(worstAltitude, Math.abs(altitude[0] - expectedAltitude[0]));
+                    worstSeparation = Math.max(worstSeparation,
+                            separation(altitude[0], azimuth[0], expectedAltitude[0], expectedAzimuth[0]));
+                }
+            }
+        }
+
+        assertTrue("worst altitude error " + worstAltitude, worstAltitude <= MAX_POSITION_ERROR_DEGREES);
+        assertTrue("worst sky separation " + worstSeparation, worstSeparation <= MAX_POSITION_ERROR_DEGREES);
+    }
+
+    @Test
+    public void calculator_switchesToFastMathPerInstance() {
+        SolarCalculator standard = new SolarCalculator(40.7128, -74.006, 1718900000000L);
+        SolarCalculator fast = new SolarCalculator(40.7128, -74.006, 1718900000000L);
+        fast.setFastMath(true);
+
+        double[] expected = standard.calculateAltitudeAndAzimuth();
+        double[] actual = fast.calculateAltitudeAndAzimuth();
+
+        assertTrue(fast.isFastMath());
+        assertFalse(standard.isFastMath());
+        assertEquals(expected[0], actual[0], MAX_POSITION_ERROR_DEGREES);
+        assertEquals(expected[1], actual[1], MAX_POSITION_ERROR_DEGREES);
+    }
+
+    // Angle on the sky between two altitude/azimuth positions; unlike the azimuth difference, well behaved at the zenith
+    private static double separation(double altitude1, double azimuth1, double altitude2, double azimuth2) {
+        double a1 = Math.toRadians(altitude1);
+        double a2 = Math.toRadians(altitude2);
+        double cosine = Math.sin(a1) * Math.sin(a2) + Math.cos(a1) * Math.cos(a2) * Math.cos(Math.toRadians(azimuth1 - azimuth2));
+        return Math.toDegrees(Math.acos(Math.min(1, cosine)));
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.example.sundial;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InstrumentationTest {
+
+    @After
+    public void restoreDefaults() {
+        Instrumentation.setSampleInterval(8);
+        Instrumentation.reset();
+    }
+
+    @Test
+    public void begin_countsEveryCallButTimesOnlyTheSampledOnes() {
+        Instrumentation.reset();
+        Instrumentation.setSampleInterval(4);
+
+        for (int i = 0; i < 16; i++) {
+            long start = Instrumentation.begin(Instrumentation.Stage.ON_DRAW);
+            Instrumentation.end(Instrumentation.Stage.ON_DRAW, start);
+        }
+
+        Instrumentation.Snapshot snapshot = Instrumentation.snapshot();
+        assertEquals(16, snapshot.getCalls(Instrumentation.Stage.ON_DRAW));
+        assertEquals(4, snapshot.getSamples(Instrumentation.Stage.ON_DRAW));
+        assertEquals(0, snapshot.getCalls(Instrumentation.Stage.SOLAR_COMPUTE));
+    }
+
+    @Test
+    public void percentiles_boundTheRecordedLatencies() throws InterruptedException {
+        Instrumentation.reset();
+        Instrumentation.setSampleInterval(1);
+
+        for (int i = 0; i < 5; i++) {
+            long start = Instrumentation.begin(Instrumentation.Stage.SHADOW_COMPUTE);
+            Thread.sleep(1);
+            Instrumentation.end(Instrumentation.Stage.SHADOW_COMPUTE, start);
+        }
+
+        Instrumentation.Snapshot snapshot = Instrumentation.snapshot();
+        long max = snapshot.getMaxNanos(Instrumentation.Stage.SHADOW_COMPUTE);
+        assertTrue(max >= 1000000);
+        assertTrue(snapshot.getPercentileNanos(Instrumentation.Stage.SHADOW_COMPUTE, 100) >= max);
+        assertTrue(snapshot.getMeanNanos(Instrumentation.Stage.SHADOW_COMPUTE) <= max);
+    }
+
+    @Test
+    public void tracer_receivesBalancedSections() {
+        final int[] depth = new int[2];
+        Instrumentation.reset();
+        Instrumentation.setSampleInterval(1);
+        Instrumentation.setTracer(new Instrumentation.Tracer() {
+            @Override
+            public void beginSection(String name) {
+                assertEquals("Sundial.animationTick", name);
+                depth[0]++;
+            }
+
+            @Override
+            public void endSection() {
+                depth[1]++;
+            }
+        });
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                long start = Instrumentation.begin(Instrumentation.Stage.ANIMATION_TICK);
+                Instrumentation.end(Instrumentation.Stage.ANIMATION_TICK, start);
+            }
+        } finally {
+            Instrumentation.setTracer(null);
+        }
+
+        assertEquals(3, depth[0]);
+        assertEquals(3, depth[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSampleInterval_rejectsZero() {
+        Instrumentation.setSampleInterval(0);
+    }
+
+}
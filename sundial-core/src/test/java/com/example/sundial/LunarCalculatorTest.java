@@ -0,0 +1,81 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LunarCalculatorTest {
+
+    private static final long FULL_MOON_2024_01_25 = 1706205240000L; // 2024-01-25 17:54 UTC
+    private static final long NEW_MOON_2024_01_11 = 1704974220000L;  // 2024-01-11 11:57 UTC
+    private static final long FIRST_QUARTER_2024_01_18 = 1705549920000L; // 2024-01-18 03:52 UTC
+    private static final long DAY_2024_06_01 = 1717200000000L;        // 2024-06-01 00:00 UTC
+    private static final long NYC_MOONRISE_2024_06_01 = 1717223100000L; // 06:25 UTC (02:25 EDT), published almanac
+
+    @Test
+    public void eclipticCoordinates_matchMeeusExample47a() {
+        // 1992-04-12 0h TD
+        double[] coordinates = new double[3];
+        LunarCalculator.calculateEclipticCoordinates(2448724.5 - 2451545.0, new LunarCalculator.Workspace(), coordinates);
+
+        assertEquals(133.162655, coordinates[0], 0.001);
+        assertEquals(-3.229126, coordinates[1], 0.001);
+        assertEquals(368409.7, coordinates[2], 1);
+    }
+
+    @Test
+    public void illuminatedFraction_followsThePhases() {
+        // Never exactly 1 or 0: the moon passes a few degrees above or below the sun's line
+        assertEquals(1.0, LunarCalculator.calculateIlluminatedFraction(FULL_MOON_2024_01_25), 0.005);
+        assertEquals(0.0, LunarCalculator.calculateIlluminatedFraction(NEW_MOON_2024_01_11), 0.005);
+        assertEquals(0.5, LunarCalculator.calculateIlluminatedFraction(FIRST_QUARTER_2024_01_18), 0.01);
+        assertTrue(LunarCalculator.isWaxing(FIRST_QUARTER_2024_01_18));
+        assertFalse(LunarCalculator.isWaxing(FULL_MOON_2024_01_25 + 7 * 86400000L));
+    }
+
+    @Test
+    public void moonriseAndMoonset_sitOnTheHorizon() {
+        LunarCalculator calculator = new LunarCalculator(40.7128, -74.006, 0);
+        int rises = 0;
+        int sets = 0;
+        for (int day = 0; day < 30; day++) {
+            long dayStart = DAY_2024_06_01 + day * 86400000L;
+            rises += assertOnHorizon(calculator, calculator.calculateMoonrise(dayStart), dayStart);
+            sets += assertOnHorizon(calculator, calculator.calculateMoonset(dayStart), dayStart);
+        }
+        // The moon skips at most one rise and one set a month
+        assertTrue("only " + rises + " moonrises", rises >= 28);
+        assertTrue("only " + sets + " moonsets", sets >= 28);
+    }
+
+    @Test
+    public void moonrise_matchesThePublishedTime() {
+        long moonrise = new LunarCalculator(40.7128, -74.006, 0).calculateMoonrise(DAY_2024_06_01);
+        assertEquals(NYC_MOONRISE_2024_06_01, moonrise, 2 * 60000L);
+    }
+
+    @Test
+    public void batch_matchesSingleCalculations() {
+        long[] times = {DAY_2024_06_01, DAY_2024_06_01 + 3600000L, DAY_2024_06_01 + 86400000L};
+        double[] altitudes = new double[times.length];
+        double[] azimuths = new double[times.length];
+        LunarCalculator.calculateBatch(51.5, -0.12, times, altitudes, azimuths);
+
+        for (int i = 0; i < times.length; i++) {
+            double[] single = new LunarCalculator(51.5, -0.12, times[i]).calculateAltitudeAndAzimuth();
+            assertEquals(single[0], altitudes[i], 0);
+            assertEquals(single[1], azimuths[i], 0);
+        }
+    }
+
+    // 1 if the event happened (and is on the horizon that day), 0 if there was none
+    private static int assertOnHorizon(LunarCalculator calculator, long event, long dayStart) {
+        if (event == SolarEventSolver.NO_EVENT) return 0;
+        assertTrue(event >= dayStart && event < dayStart + 86400000L);
+        calculator.setTimeInMillis(event);
+        double altitude = calculator.calculateAltitudeAndAzimuth()[0];
+        assertEquals(-0.83, altitude, 0.1); // refraction plus the semi-diameter
+        return 1;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ShadowManagerTest {
+
+    private static final long JUNE_20_2024 = 1718841600000L; // 00:00 UTC
+
+    private final ShadowManager shadowManager = new ShadowManager(460, 380, 40, 10);
+
+    @Test
+    public void dayTrajectory_isCachedPerQuantizedLocationAndDay() {
+        ShadowTrajectory first = shadowManager.calculateDayTrajectory(40.7128, -74.006, JUNE_20_2024, 289);
+        ShadowTrajectory nearby = shadowManager.calculateDayTrajectory(40.7131, -74.0058, JUNE_20_2024, 289);
+        ShadowTrajectory nextDay = shadowManager.calculateDayTrajectory(40.7128, -74.006, JUNE_20_2024 + 86400000L, 289);
+
+        assertSame(first, nearby);
+        assertNotSame(first, nextDay);
+        assertEquals(289, first.getSampleCount());
+        assertEquals(JUNE_20_2024 + 86400000L, first.getEndMillis());
+    }
+
+    @Test
+    public void dayTrajectory_samplesMatchDirectCalculation() {
+        ShadowTrajectory trajectory = shadowManager.calculateDayTrajectory(51.5, 0.0, JUNE_20_2024, 97);
+
+        for (int i = 0; i < trajectory.getSampleCount(); i += 8) {
+            double[] sun = new SolarCalculator(51.5, 0.0, trajectory.getTimeAt(i)).calculateAltitudeAndAzimuth();
+            assertEquals(shadowManager.calculateShadowLength(sun[0], 0), trajectory.getLength(i), 1e-9);
+            assertEquals(shadowManager.calculateShadowDirection(sun[1], 0), trajectory.getDirection(i), 1e-9);
+        }
+    }
+
+    @Test
+    public void directionAt_interpolatesAcrossNorth() {
+        double[] unused = new double[2];
+        ShadowTrajectory trajectory = new ShadowTrajectory(0, 1000, unused, unused, unused, new double[]{350, 10}, unused);
+
+        assertEquals(0, trajectory.directionAt(500), 1e-9);
+        assertEquals(355, trajectory.directionAt(250), 1e-9);
+        assertEquals(10, trajectory.directionAt(5000), 1e-9);
+    }
+
+}
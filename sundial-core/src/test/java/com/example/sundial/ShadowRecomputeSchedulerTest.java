@@ -0,0 +1,76 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ShadowRecomputeSchedulerTest {
+
+    private static final long JUNE_20_2024 = 1718841600000L; // 00:00 UTC
+    private static final double NYC_LATITUDE = 40.7128;
+    private static final double NYC_LONGITUDE = -74.006;
+
+    private final ShadowManager shadowManager = new ShadowManager(460, 380, 40, 10);
+    private final ShadowRecomputeScheduler scheduler = new ShadowRecomputeScheduler(shadowManager, 1.0);
+
+    @Test
+    public void daytime_waitsUntilTheTipHasMovedAboutAPixel() {
+        long afternoon = JUNE_20_2024 + 19 * 3600000L; // 15:00 EDT
+        long delay = scheduler.calculateDelay(NYC_LATITUDE, NYC_LONGITUDE, afternoon);
+
+        assertTrue(delay >= ShadowRecomputeScheduler.MIN_DELAY_MILLIS);
+        assertTrue(delay < ShadowRecomputeScheduler.MAX_DELAY_MILLIS);
+
+        double[] before = new SolarCalculator(NYC_LATITUDE, NYC_LONGITUDE, afternoon).calculateAltitudeAndAzimuth();
+        double[] after = new SolarCalculator(NYC_LATITUDE, NYC_LONGITUDE, afternoon + delay).calculateAltitudeAndAzimuth();
+        double moved = tipDistance(before, after);
+        assertEquals(1.0, moved, 0.1);
+    }
+
+    @Test
+    public void night_sleepsUntilSunrise() {
+        long midnight = JUNE_20_2024 + 4 * 3600000L; // 00:00 EDT
+        long sunrise = new SolarEventSolver(NYC_LATITUDE, NYC_LONGITUDE).calculateSunrise(JUNE_20_2024);
+
+        assertEquals(sunrise - midnight, scheduler.calculateDelay(NYC_LATITUDE, NYC_LONGITUDE, midnight));
+    }
+
+    @Test
+    public void nearSunset_wakesWhenTheSunReachesTheHorizon() {
+        long sunset = new SolarEventSolver(NYC_LATITUDE, NYC_LONGITUDE).calculateSunset(JUNE_20_2024);
+        ShadowRecomputeScheduler coarse = new ShadowRecomputeScheduler(shadowManager, 1000.0);
+
+        long now = sunset - 20 * 60000L;
+        long wake = now + coarse.calculateDelay(NYC_LATITUDE, NYC_LONGITUDE, now);
+        double[] sun = new SolarCalculator(NYC_LATITUDE, NYC_LONGITUDE, wake).calculateAltitudeAndAzimuth();
+        assertEquals(0.0, sun[0], 0.05); // linear in altitude, so within seconds of the crossing
+    }
+
+    @Test
+    public void justBeforeSunrise_wakesForTheFirstShadow() {
+        long sunrise = new SolarEventSolver(NYC_LATITUDE, NYC_LONGITUDE).calculateSunrise(JUNE_20_2024);
+
+        long now = sunrise + 60000L; // upper limb visible, center still below the horizon
+        long wake = now + scheduler.calculateDelay(NYC_LATITUDE, NYC_LONGITUDE, now);
+        assertTrue(wake - sunrise < 10 * 60000L);
+        double[] sun = new SolarCalculator(NYC_LATITUDE, NYC_LONGITUDE, wake).calculateAltitudeAndAzimuth();
+        assertEquals(0.0, sun[0], 0.01);
+    }
+
+    @Test
+    public void polarNight_checksBackAtTheMaximumDelay() {
+        long december = JUNE_20_2024 + 183 * 86400000L + 12 * 3600000L;
+
+        assertEquals(ShadowRecomputeScheduler.MAX_DELAY_MILLIS, scheduler.calculateDelay(80.0, 15.0, december));
+    }
+
+    private double tipDistance(double[] sunBefore, double[] sunAfter) {
+        double length0 = shadowManager.calculateShadowLength(sunBefore[0], 0);
+        double length1 = shadowManager.calculateShadowLength(sunAfter[0], 0);
+        double direction0 = Math.toRadians(shadowManager.calculateShadowDirection(sunBefore[1], 0));
+        double direction1 = Math.toRadians(shadowManager.calculateShadowDirection(sunAfter[1], 0));
+        return Math.hypot(length1 * Math.sin(direction1) - length0 * Math.sin(direction0),
+                length1 * Math.cos(direction1) - length0 * Math.cos(direction0));
+    }
+
+}
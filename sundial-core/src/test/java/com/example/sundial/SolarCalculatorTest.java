@@ -0,0 +1,67 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SolarCalculatorTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    // 2024-06-20T12:00:00Z, close to the June solstice
+    private static final long JUNE_SOLSTICE_NOON_UTC = 1718884800000L;
+
+    @Test
+    public void julianDate_matchesKnownEpochs() {
+        assertEquals(2451545.0, SolarCalculator.calculateJulianDate(946728000000L), TOLERANCE); // 2000-01-01T12:00Z
+        assertEquals(2440587.5, SolarCalculator.calculateJulianDate(0L), TOLERANCE);            // 1970-01-01T00:00Z
+        assertEquals(0.5, SolarCalculator.daysSinceJ2000(946771200000L), TOLERANCE);          // 2000-01-02T00:00Z
+    }
+
+    @Test
+    public void noonAtGreenwich_nearSolstice_isHighAndDueSouth() {
+        double[] position = new SolarCalculator(51.4769, 0.0, JUNE_SOLSTICE_NOON_UTC).calculateAltitudeAndAzimuth();
+
+        // 90 - latitude + declination (~23.44)
+        assertEquals(61.96, position[0], 0.1);
+        assertEquals(180.0, position[1], 1.0);
+    }
+
+    @Test
+    public void batch_matchesSingleEvaluation() {
+        long[] times = new long[48];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = JUNE_SOLSTICE_NOON_UTC + i * 1800000L;
+        }
+        double[] altitudes = new double[times.length];
+        double[] azimuths = new double[times.length];
+
+        SolarCalculator.calculateBatch(-33.9, 18.4, times, altitudes, azimuths);
+
+        SolarCalculator calculator = new SolarCalculator(-33.9, 18.4, 0);
+        for (int i = 0; i < times.length; i++) {
+            calculator.setTimeInMillis(times[i]);
+            double[] position = calculator.calculateAltitudeAndAzimuth();
+            assertEquals(position[0], altitudes[i], TOLERANCE);
+            assertEquals(position[1], azimuths[i], TOLERANCE);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batch_rejectsShortOutputArrays() {
+        SolarCalculator.calculateBatch(0, 0, new long[4], new double[3], new double[4]);
+    }
+
+    @Test
+    public void ephemerisCache_staysWithinReportedError() {
+        SolarEphemerisCache cache = new SolarEphemerisCache();
+        for (int minute = 0; minute < 1440; minute += 7) {
+            long time = JUNE_SOLSTICE_NOON_UTC + minute * 60000L;
+            double[] direct = new SolarCalculator(40.7, -74.0, time).calculateAltitudeAndAzimuth();
+            double[] cached = cache.calculateAltitudeAndAzimuth(40.7, -74.0, time);
+            assertEquals(direct[0], cached[0], 1e-4);
+        }
+        assertTrue(cache.getMaxError() < 1e-4);
+    }
+
+}
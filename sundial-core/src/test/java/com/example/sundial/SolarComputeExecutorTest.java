@@ -0,0 +1,92 @@
+package com.example.sundial;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class SolarComputeExecutorTest {
+
+    private static final long JUNE_20_2024_NOON = 1718884800000L; // 12:00 UTC
+
+    // Drains are queued and run by hand, so the tests decide when the worker gets to them
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private final SolarComputeExecutor executor = new SolarComputeExecutor(queue::add);
+    private final List<double[]> results = new ArrayList<>();
+    private final SolarCalculator.SolarCalculatorCallback recorder =
+            (altitude, azimuth) -> results.add(new double[]{altitude, azimuth});
+
+    @After
+    public void restoreInstrumentation() {
+        Instrumentation.setTracer(null);
+        Instrumentation.setSampleInterval(8);
+        Instrumentation.reset();
+    }
+
+    @Test
+    public void burstBeforeDraining_isCoalescedToTheLastRequest() {
+        executor.submit(51.5, -0.12, JUNE_20_2024_NOON, recorder);
+        executor.submit(-33.9, 151.2, JUNE_20_2024_NOON, recorder);
+        executor.submit(40.7128, -74.006, JUNE_20_2024_NOON, recorder);
+        runQueue();
+
+        assertEquals(1, results.size());
+        assertSunAt(40.7128, -74.006, JUNE_20_2024_NOON, results.get(0));
+    }
+
+    @Test
+    public void cancelBeforeDraining_dropsTheRequest() {
+        executor.submit(51.5, -0.12, JUNE_20_2024_NOON, recorder);
+        executor.cancel();
+        runQueue();
+
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void submitDuringComputation_dropsTheStaleResult() {
+        // The compute stage's trace section opens on the worker between taking a request and finishing it
+        Instrumentation.setSampleInterval(1);
+        Instrumentation.setTracer(new Instrumentation.Tracer() {
+            private boolean submitted;
+
+            @Override
+            public void beginSection(String name) {
+                if (!submitted) {
+                    submitted = true;
+                    executor.submit(40.7128, -74.006, JUNE_20_2024_NOON, recorder);
+                }
+            }
+
+            @Override
+            public void endSection() {
+            }
+        });
+        assumeTrue("needs -Dsundial.instrumentation.enabled=true", Instrumentation.ENABLED);
+
+        executor.submit(51.5, -0.12, JUNE_20_2024_NOON, recorder);
+        runQueue();
+
+        assertEquals(1, results.size());
+        assertSunAt(40.7128, -74.006, JUNE_20_2024_NOON, results.get(0));
+    }
+
+    private void runQueue() {
+        Runnable drain;
+        while ((drain = queue.poll()) != null) {
+            drain.run();
+        }
+    }
+
+    private static void assertSunAt(double latitude, double longitude, long timeInMillis, double[] actual) {
+        double[] expected = new SolarCalculator(latitude, longitude, timeInMillis).calculateAltitudeAndAzimuth();
+        assertEquals(expected[0], actual[0], 1e-3);
+        assertEquals(expected[1], actual[1], 1e-3);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SolarEventSolverTest {
+
+    private static final long JUNE_20_2024 = 1718841600000L; // 00:00 UTC
+    private static final long ONE_MINUTE = 60000L;
+
+    @Test
+    public void newYork_summerSolstice_matchesPublishedTimes() {
+        SolarEventSolver solver = new SolarEventSolver(40.7128, -74.006);
+
+        // Published almanac times for 2024-06-20: sunrise 05:25 EDT, noon 12:58 EDT, sunset 20:31 EDT
+        assertEquals(1718875500000L, solver.calculateSunrise(JUNE_20_2024), 2 * ONE_MINUTE);
+        assertEquals(1718902680000L, solver.calculateSolarNoon(JUNE_20_2024), 2 * ONE_MINUTE);
+        assertEquals(1718929860000L, solver.calculateSunset(JUNE_20_2024), 2 * ONE_MINUTE);
+    }
+
+    @Test
+    public void sunrise_isWhereAltitudeCrossesTheHorizon() {
+        SolarEventSolver solver = new SolarEventSolver(-33.9, 18.4);
+        long sunrise = solver.calculateSunrise(JUNE_20_2024);
+
+        double[] position = new SolarCalculator(-33.9, 18.4, sunrise).calculateAltitudeAndAzimuth();
+        assertEquals(SolarEventSolver.SUNRISE_ALTITUDE, position[0], 0.01);
+    }
+
+    @Test
+    public void hourLines_areAboutAnHourApart() {
+        SolarEventSolver solver = new SolarEventSolver(51.5, -0.1);
+        long previous = solver.calculateHourLineCrossing(JUNE_20_2024, 6);
+        for (int hour = 7; hour <= 18; hour++) {
+            long crossing = solver.calculateHourLineCrossing(JUNE_20_2024, hour);
+            assertEquals(3600000L, crossing - previous, 30000L);
+            previous = crossing;
+        }
+    }
+
+    @Test
+    public void polarDay_hasNoSunriseOrSunset() {
+        SolarEventSolver solver = new SolarEventSolver(78.2, 15.6);
+        assertEquals(SolarEventSolver.NO_EVENT, solver.calculateSunrise(JUNE_20_2024));
+        assertEquals(SolarEventSolver.NO_EVENT, solver.calculateSunset(JUNE_20_2024));
+        assertNotEquals(SolarEventSolver.NO_EVENT, solver.calculateSolarNoon(JUNE_20_2024));
+    }
+
+    @Test
+    public void calculateYear_fillsEveryDay() {
+        long[] sunrise = new long[366];
+        long[] noon = new long[366];
+        long[] sunset = new long[366];
+
+        assertEquals(366, new SolarEventSolver(40.7, -74.0).calculateYear(2024, sunrise, noon, sunset));
+        assertEquals(365, new SolarEventSolver(40.7, -74.0).calculateYear(2023, sunrise, noon, sunset));
+        for (int i = 0; i < 365; i++) {
+            assertTrue(sunrise[i] < noon[i] && noon[i] < sunset[i]);
+        }
+    }
+
+}
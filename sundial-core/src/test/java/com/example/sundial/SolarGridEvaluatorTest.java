@@ -0,0 +1,55 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SolarGridEvaluatorTest {
+
+    private static final long TIME = 1718884800000L; // 2024-06-20T12:00:00Z
+    private static final double TOLERANCE = 1e-9;
+
+    // Small threshold so even these tiny inputs are split across several tasks
+    private final SolarGridEvaluator evaluator = new SolarGridEvaluator(ForkJoinPool.commonPool(), 7);
+
+    @Test
+    public void grid_matchesSolarCalculator() {
+        double[] latitudes = {-60, -33.9, 0, 40.7, 69.6};
+        double[] longitudes = {-179, -74, -0.1, 18.4, 139.7, 180};
+        double[] altitudes = new double[latitudes.length * longitudes.length];
+        double[] azimuths = new double[altitudes.length];
+
+        evaluator.evaluateGrid(TIME, latitudes, longitudes, altitudes, azimuths);
+
+        for (int row = 0; row < latitudes.length; row++) {
+            for (int column = 0; column < longitudes.length; column++) {
+                double[] expected = new SolarCalculator(latitudes[row], longitudes[column], TIME).calculateAltitudeAndAzimuth();
+                int index = row * longitudes.length + column;
+                assertEquals(expected[0], altitudes[index], TOLERANCE);
+                assertEquals(expected[1], azimuths[index], TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void multipleInstants_areLaidOutInstantMajor() {
+        long[] times = {TIME, TIME + 3600000L, TIME + 7200000L};
+        double[] latitudes = {51.5, -33.9, 35.7, 64.1};
+        double[] longitudes = {-0.1, 18.4, 139.7, -21.9};
+        double[] altitudes = new double[times.length * latitudes.length];
+        double[] azimuths = new double[altitudes.length];
+
+        evaluator.evaluate(times, latitudes, longitudes, altitudes, azimuths);
+
+        for (int t = 0; t < times.length; t++) {
+            for (int i = 0; i < latitudes.length; i++) {
+                double[] expected = new SolarCalculator(latitudes[i], longitudes[i], times[t]).calculateAltitudeAndAzimuth();
+                assertEquals(expected[0], altitudes[t * latitudes.length + i], TOLERANCE);
+                assertEquals(expected[1], azimuths[t * latitudes.length + i], TOLERANCE);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SolarPositionAlgorithmTest {
+
+    private static final long YEAR_2024 = 1704067200000L; // 2024-01-01 00:00 UTC
+    private static final long MILLIS_PER_YEAR = 366 * 86400000L;
+
+    @Test
+    public void precise_matchesTheNrelSpaReferenceValues() {
+        // Reda & Andreas (2004), table A5.1: 2003-10-17 12:30:30 at UTC-7, Golden, Colorado
+        long time = 1066419030000L; // 2003-10-17T19:30:30Z
+        SolarPositionAlgorithm spa = new PreciseSolarPosition(1830.14, 820, 11, 67);
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+
+        spa.calculate(39.742476, -105.1786, time, altitude, azimuth, 0);
+
+        assertEquals(50.11162, 90 - altitude[0], 0.00001);
+        assertEquals(194.34024, azimuth[0], 0.00001);
+    }
+
+    @Test
+    public void tiers_stayWithinTheirErrorBudgetsOverAYear() {
+        SolarPositionAlgorithm reference = new PreciseSolarPosition(0, 0, 12, Double.NaN); // no refraction
+        assertMaxError(SolarPositionAlgorithm.STANDARD, reference, 0.02);
+        assertMaxError(SolarPositionAlgorithm.FAST, reference, 0.6);
+    }
+
+    @Test
+    public void standard_isTheOriginalCalculator() {
+        long time = YEAR_2024 + 170 * 86400000L + 15 * 3600000L;
+        double[] original = new SolarCalculator(40.7128, -74.006, time).calculateAltitudeAndAzimuth();
+        double[] standard = new SolarCalculator(40.7128, -74.006, time).calculateAltitudeAndAzimuth(SolarPositionAlgorithm.STANDARD);
+
+        assertArrayEquals(original, standard, 0);
+    }
+
+    @Test
+    public void precise_refractionLiftsTheSunNearTheHorizon() {
+        long sunset = new SolarEventSolver(40.7128, -74.006).calculateSunset(YEAR_2024 + 170 * 86400000L);
+        double[] apparent = new double[1];
+        double[] geometric = new double[1];
+        double[] azimuth = new double[1];
+
+        new PreciseSolarPosition().calculate(40.7128, -74.006, sunset - 600000L, apparent, azimuth, 0);
+        new PreciseSolarPosition(0, 0, 12, Double.NaN).calculate(40.7128, -74.006, sunset - 600000L, geometric, azimuth, 0);
+
+        // Roughly half a degree of refraction close to the horizon
+        assertEquals(0.4, apparent[0] - geometric[0], 0.15);
+    }
+
+    @Test
+    public void yearOf_invertsEpochDay() {
+        for (int year = 1899; year <= 2101; year++) {
+            assertEquals(year, FastSolarPosition.yearOf(SolarEventSolver.epochDay(year, 1, 1)));
+            assertEquals(year, FastSolarPosition.yearOf(SolarEventSolver.epochDay(year, 12, 31)));
+        }
+    }
+
+    private static void assertMaxError(SolarPositionAlgorithm tier, SolarPositionAlgorithm reference, double toleranceDegrees) {
+        double[] referenceAltitude = new double[1];
+        double[] referenceAzimuth = new double[1];
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+
+        for (double latitude = -60; latitude <= 60; latitude += 30) {
+            for (long time = YEAR_2024; time < YEAR_2024 + MILLIS_PER_YEAR; time += 7 * 3600000L + 60000L) {
+                reference.calculate(latitude, -74.0, time, referenceAltitude, referenceAzimuth, 0);
+                if (referenceAltitude[0] < 0) continue;
+                tier.calculate(latitude, -74.0, time, altitude, azimuth, 0);
+
+                assertEquals(referenceAltitude[0], altitude[0], toleranceDegrees);
+                // Azimuth error shrinks to a point at the zenith, so compare it as an arc on the sky
+                double azimuthError = Math.abs(((azimuth[0] - referenceAzimuth[0] + 540) % 360) - 180);
+                assertTrue(azimuthError * Math.cos(Math.toRadians(referenceAltitude[0])) < toleranceDegrees);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.Assert.*;
+
+public class SolarStatePublisherTest {
+
+    private static final double NYC_LATITUDE = 40.7128;
+    private static final double NYC_LONGITUDE = -74.006;
+
+    // Ticks compute on the test thread, one at a time when runTick() is called
+    private final ManualTickScheduler ticks = new ManualTickScheduler();
+    private final ShadowManager shadowManager = new ShadowManager(460, 380, 40, 10);
+    private final SolarStatePublisher publisher =
+            new SolarStatePublisher(new SolarComputeExecutor(Runnable::run), shadowManager, 1000, ticks);
+
+    @Test
+    public void deliversOnlyWhatWasRequested() {
+        publisher.setObserver(NYC_LATITUDE, NYC_LONGITUDE);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        ticks.runTicks(4);
+        assertEquals(2, subscriber.states.size());
+
+        subscriber.subscription.request(1);
+        assertEquals(3, subscriber.states.size());
+    }
+
+    @Test
+    public void slowSubscriberGetsTheLatestState() {
+        publisher.setObserver(NYC_LATITUDE, NYC_LONGITUDE);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        ticks.runTicks(5);
+        assertEquals(1, subscriber.states.size());
+
+        // Only the newest of the states produced meanwhile is waiting
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, subscriber.states.size());
+        SolarState conflated = subscriber.states.get(1);
+        assertSame(publisher.getLatestState(), conflated);
+
+        double expectedLength = shadowManager.calculateShadowLength(conflated.getAltitude(), 0);
+        assertEquals(expectedLength, conflated.getShadowLength(), 0);
+        assertEquals(CelestialBody.SUN, conflated.getBody());
+    }
+
+    @Test
+    public void ticksOnlyWithSubscribersAndALocation() {
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+        assertFalse(publisher.isProducing());
+
+        publisher.setObserver(NYC_LATITUDE, NYC_LONGITUDE);
+        first.subscription.request(Long.MAX_VALUE);
+        second.subscription.request(Long.MAX_VALUE);
+        ticks.runTicks(3);
+        assertEquals(3, first.states.size());
+        assertSame(first.states.get(2), second.states.get(2)); // one computation shared by both
+
+        first.subscription.cancel();
+        assertTrue(publisher.isProducing());
+        second.subscription.cancel();
+        assertFalse(publisher.isProducing());
+        assertEquals(0, ticks.runTicks(1));
+    }
+
+    @Test
+    public void tickStartedBeforeTheLastCancel_submitsNothing() {
+        ArrayDeque<Runnable> computeQueue = new ArrayDeque<>();
+        SolarStatePublisher queued = new SolarStatePublisher(new SolarComputeExecutor(computeQueue::add), shadowManager, 1000, ticks);
+        queued.setObserver(NYC_LATITUDE, NYC_LONGITUDE);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        queued.subscribe(subscriber);
+
+        subscriber.subscription.cancel();
+        ticks.lastTick.run(); // as if the tick thread had already picked it up
+        assertTrue(computeQueue.isEmpty());
+    }
+
+    @Test
+    public void nonPositiveRequest_signalsError() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveTick_isRejected() {
+        publisher.setTickMillis(0);
+    }
+
+    private static final class ManualTickScheduler implements SolarStatePublisher.TickScheduler {
+
+        private final ArrayDeque<FutureTask<?>> pending = new ArrayDeque<>();
+        Runnable lastTick;
+
+        @Override
+        public Future<?> schedule(Runnable tick, long delayMillis) {
+            lastTick = tick;
+            FutureTask<?> task = new FutureTask<>(tick, null);
+            pending.add(task);
+            return task;
+        }
+
+        @Override
+        public void shutdown() {
+            pending.clear();
+        }
+
+        // Runs up to count ticks that are still scheduled; returns how many ran
+        int runTicks(int count) {
+            int ran = 0;
+            while (ran < count && !pending.isEmpty()) {
+                FutureTask<?> task = pending.poll();
+                if (task.isCancelled()) continue;
+                task.run();
+                ran++;
+            }
+            return ran;
+        }
+
+    }
+
+    private static final class RecordingSubscriber implements SolarStateStream.Subscriber<SolarState> {
+
+        final List<SolarState> states = new ArrayList<>();
+        SolarStateStream.Subscription subscription;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(SolarStateStream.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(SolarState state) {
+            states.add(state);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.sundial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SolarStepperTest {
+
+    private static final long DAY_2024_06_20 = 1718841600000L; // 00:00 UTC
+    private static final long MILLIS_PER_MINUTE = 60000L;
+
+    // The drift SolarStepper documents for RESYNC_SPAN_MILLIS
+    private static final double ALTITUDE_TOLERANCE = 1e-5;
+    private static final double AZIMUTH_TOLERANCE = 3e-5;
+
+    @Test
+    public void minuteSteps_matchTheExactCalculationOverAWeek() {
+        assertMatchesExact(40.7128, -74.006, DAY_2024_06_20, MILLIS_PER_MINUTE, 7 * 1440);
+        assertMatchesExact(-33.9, 151.2, DAY_2024_06_20, MILLIS_PER_MINUTE, 7 * 1440);
+        assertMatchesExact(69.6, 19.0, DAY_2024_06_20, MILLIS_PER_MINUTE, 7 * 1440);
+    }
+
+    @Test
+    public void oddAndBackwardSteps_matchTheExactCalculation() {
+        assertMatchesExact(51.5, -0.12, DAY_2024_06_20, 7 * 1000L + 3, 20000);
+        assertMatchesExact(51.5, -0.12, DAY_2024_06_20, -5 * MILLIS_PER_MINUTE, 3000);
+        assertMatchesExact(51.5, -0.12, DAY_2024_06_20, 86400000L, 400); // longer than a block: every step exact
+    }
+
+    @Test
+    public void reset_jumpsToTheNewTime() {
+        SolarStepper stepper = new SolarStepper(40.7128, -74.006, DAY_2024_06_20, MILLIS_PER_MINUTE);
+        double[] altitude = new double[1];
+        double[] azimuth = new double[1];
+        stepper.fill(altitude, azimuth, 1);
+
+        long target = DAY_2024_06_20 + 100 * 86400000L + 12345;
+        stepper.reset(target);
+        stepper.next(altitude, azimuth, 0);
+
+        double[] expected = new SolarCalculator(40.7128, -74.006, target).calculateAltitudeAndAzimuth();
+        assertEquals(expected[0], altitude[0], 1e-9);
+        assertEquals(expected[1], azimuth[0], 1e-9);
+        assertEquals(target + MILLIS_PER_MINUTE, stepper.getTimeInMillis());
+    }
+
+    private static void assertMatchesExact(double latitude, double longitude, long start, long step, int count) {
+        SolarStepper stepper = new SolarStepper(latitude, longitude, start, step);
+        double[] altitudes = new double[count];
+        double[] azimuths = new double[count];
+        stepper.fill(altitudes, azimuths, count);
+
+        SolarCalculator calculator = new SolarCalculator(latitude, longitude, start);
+        for (int i = 0; i < count; i++) {
+            calculator.setTimeInMillis(start + i * step);
+            double[] expected = calculator.calculateAltitudeAndAzimuth();
+            assertEquals("altitude at step " + i, expected[0], altitudes[i], ALTITUDE_TOLERANCE);
+            if (Math.abs(expected[0]) < 89) {
+                double azimuthError = Math.abs(expected[1] - azimuths[i]);
+                assertEquals("azimuth at step " + i, 0, Math.min(azimuthError, 360 - azimuthError), AZIMUTH_TOLERANCE);
+            }
+        }
+        assertEquals(start + count * step, stepper.getTimeInMillis());
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.example.sundial.vector;
+
+import com.example.sundial.SolarCalculator;
+
+/*
+Batch solar positions for bulk JVM jobs, several instants or observers per
+instruction.  When the JVM was started with --add-modules jdk.incubator.vector
+and the CPU has vectors of at least two doubles (SSE2 and up, AVX2 gives
+four), batches run through VectorSolarKernel; otherwise they fall back to
+SolarCalculator's scalar batch.  Either way the results match
+SolarCalculator.calculateBatch to within 0.01 degrees (the vector path uses
+the same polynomial trig as FastMath).  Thread-safe.
+ */
+public final class VectorSolarBatch {
+
+    private static final boolean VECTORIZED = detectVectorSupport();
+
+    private VectorSolarBatch() {
+    }
+
+    // True if batches run on the Vector API rather than the scalar fallback
+    public static boolean isVectorized() {
+
+        return VECTORIZED;
+
+    }
+
+    public static void calculateBatch(double latitude, double longitude, long[] timesInMillis,
+                                      double[] altitudeOut, double[] azimuthOut) {
+
+        if (VECTORIZED) {
+            checkBatchLengths(timesInMillis.length, altitudeOut, azimuthOut);
+            VectorSolarKernel.calculate(latitude, longitude, timesInMillis, altitudeOut, azimuthOut);
+        } else {
+            SolarCalculator.calculateBatch(latitude, longitude, timesInMillis, altitudeOut, azimuthOut);
+        }
+
+    }
+
+    // Every instant has its own observer (latitudes[i], longitudes[i])
+    public static void calculateBatch(double[] latitudes, double[] longitudes, long[] timesInMillis,
+                                      double[] altitudeOut, double[] azimuthOut) {
+
+        if (VECTORIZED) {
+            checkBatchLengths(timesInMillis.length, altitudeOut, azimuthOut);
+            if (latitudes.length < timesInMillis.length || longitudes.length < timesInMillis.length) {
+                throw new IllegalArgumentException("Observer arrays are shorter than the timestamp array");
+            }
+            VectorSolarKernel.calculate(latitudes, longitudes, timesInMillis, altitudeOut, azimuthOut);
+        } else {
+            SolarCalculator.calculateBatch(latitudes, longitudes, timesInMillis, altitudeOut, azimuthOut);
+        }
+
+    }
+
+    private static void checkBatchLengths(int count, double[] altitudeOut, double[] azimuthOut) {
+
+        if (altitudeOut.length < count || azimuthOut.length < count) {
+            throw new IllegalArgumentException("Output arrays are shorter than the timestamp array");
+        }
+
+    }
+
+    // VectorSolarKernel is only loaded once the module is known to be there, so its absence is not an error
+    private static boolean detectVectorSupport() {
+
+        if (Boolean.getBoolean("sundial.vector.disabled")
+                || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return false;
+        }
+        try {
+            return VectorSolarKernel.laneCount() >= 2;
+        } catch (LinkageError e) {
+            return false;
+        }
+
+    }
+
+}
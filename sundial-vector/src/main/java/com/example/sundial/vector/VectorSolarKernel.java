@@ -0,0 +1,221 @@
+package com.example.sundial.vector;
+
+import com.example.sundial.SolarPositionAlgorithm;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+SolarCalculator's almanac formulas evaluated a vector of instants at a time,
+with the trig done by lane-wise polynomials: the same range reductions and
+series as FastMath, with branches replaced by masks and blends.  asin is
+derived from atan2, so only sin/cos and atan2 kernels are needed.  Lanes left
+over at the end of a batch go through the scalar fast-math path.
+
+Only loaded by VectorSolarBatch after it has checked that jdk.incubator.vector
+is present.
+ */
+final class VectorSolarKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double RADIANS_TO_DEGREES = 180.0 / Math.PI;
+    private static final double MILLIS_PER_DAY = 86400000.0;
+    private static final long J2000_EPOCH_MILLIS = 946728000000L;
+
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double TWO_OVER_PI = 2 / Math.PI;
+    private static final double HALF_PI_HIGH = 1.5707963267341256;
+    private static final double HALF_PI_LOW = 6.077100506506192e-11;
+    private static final double SQRT_3 = 1.7320508075688772;
+    private static final double TAN_PI_OVER_12 = 0.2679491924311227;
+    private static final double PI_OVER_6 = Math.PI / 6;
+
+    // Adding and subtracting 1.5 * 2^52 rounds a double to the nearest integer, and leaves that integer in the
+    // low bits of the intermediate sum (valid for |x| < 2^51)
+    private static final double ROUNDING_MAGIC = 6755399441055744.0;
+
+    private VectorSolarKernel() {
+    }
+
+    static int laneCount() {
+
+        return SPECIES.length();
+
+    }
+
+    static void calculate(double latitude, double longitude, long[] timesInMillis,
+                          double[] altitudeOut, double[] azimuthOut) {
+
+        int lanes = SPECIES.length();
+        int vectorEnd = SPECIES.loopBound(timesInMillis.length);
+        double[] days = new double[lanes];
+
+        DoubleVector latitudeVector = DoubleVector.broadcast(SPECIES, latitude * DEGREES_TO_RADIANS);
+        DoubleVector sinLatitude = sin(latitudeVector);
+        DoubleVector cosLatitude = cos(latitudeVector);
+        DoubleVector longitudeVector = DoubleVector.broadcast(SPECIES, longitude);
+
+        for (int i = 0; i < vectorEnd; i += lanes) {
+            for (int lane = 0; lane < lanes; lane++) {
+                days[lane] = (timesInMillis[i + lane] - J2000_EPOCH_MILLIS) / MILLIS_PER_DAY;
+            }
+            calculateLanes(DoubleVector.fromArray(SPECIES, days, 0), sinLatitude, cosLatitude, longitudeVector,
+                    altitudeOut, azimuthOut, i);
+        }
+
+        for (int i = vectorEnd; i < timesInMillis.length; i++) {
+            SolarPositionAlgorithm.STANDARD_FAST_MATH.calculate(latitude, longitude, timesInMillis[i], altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    static void calculate(double[] latitudes, double[] longitudes, long[] timesInMillis,
+                          double[] altitudeOut, double[] azimuthOut) {
+
+        int lanes = SPECIES.length();
+        int vectorEnd = SPECIES.loopBound(timesInMillis.length);
+        double[] days = new double[lanes];
+
+        for (int i = 0; i < vectorEnd; i += lanes) {
+            for (int lane = 0; lane < lanes; lane++) {
+                days[lane] = (timesInMillis[i + lane] - J2000_EPOCH_MILLIS) / MILLIS_PER_DAY;
+            }
+            DoubleVector latitudeVector = DoubleVector.fromArray(SPECIES, latitudes, i).mul(DEGREES_TO_RADIANS);
+            calculateLanes(DoubleVector.fromArray(SPECIES, days, 0), sin(latitudeVector), cos(latitudeVector),
+                    DoubleVector.fromArray(SPECIES, longitudes, i), altitudeOut, azimuthOut, i);
+        }
+
+        for (int i = vectorEnd; i < timesInMillis.length; i++) {
+            SolarPositionAlgorithm.STANDARD_FAST_MATH.calculate(latitudes[i], longitudes[i], timesInMillis[i], altitudeOut, azimuthOut, i);
+        }
+
+    }
+
+    // One vector of instants; mirrors FastMathSolarPosition step for step
+    private static void calculateLanes(DoubleVector days, DoubleVector sinLatitude, DoubleVector cosLatitude,
+                                       DoubleVector longitude, double[] altitudeOut, double[] azimuthOut, int offset) {
+
+        DoubleVector julianCentury = days.div(36525.0);
+
+        DoubleVector meanAnomaly = julianCentury.mul(35999.05029).add(357.52911).mul(DEGREES_TO_RADIANS);
+        DoubleVector sinM = sin(meanAnomaly);
+        DoubleVector cosM = cos(meanAnomaly);
+        DoubleVector sin2M = sinM.mul(cosM).mul(2);
+        DoubleVector sin3M = sinM.mul(sinM.mul(sinM).mul(-4).add(3));
+        DoubleVector equationOfCenter = julianCentury.mul(julianCentury).mul(-0.000014)
+                .add(julianCentury.mul(-0.004817)).add(1.914602).mul(sinM)
+                .add(julianCentury.mul(-0.000101).add(0.019993).mul(sin2M))
+                .add(sin3M.mul(0.000289));
+
+        DoubleVector lambda = julianCentury.mul(36000.76983).add(280.46646).add(equationOfCenter).mul(DEGREES_TO_RADIANS);
+        DoubleVector epsilon = julianCentury.mul(-0.0130042).add(23.439291).mul(DEGREES_TO_RADIANS);
+        DoubleVector sinLambda = sin(lambda);
+        DoubleVector cosLambda = cos(lambda);
+        DoubleVector sinEpsilon = sin(epsilon);
+        DoubleVector cosEpsilon = cos(epsilon);
+
+        DoubleVector sinDeclination = sinEpsilon.mul(sinLambda);
+        DoubleVector cosDeclination = sinDeclination.mul(sinDeclination).neg().add(1).sqrt();
+
+        // Right ascension and sidereal time in degrees; only their difference matters, reduced to -180..180
+        DoubleVector rightAscension = atan2(cosEpsilon.mul(sinLambda), cosLambda).mul(RADIANS_TO_DEGREES);
+        DoubleVector siderealTime = days.mul(360.98564736629).add(280.46061837).add(longitude);
+        DoubleVector hourAngle = reduceDegrees(siderealTime.sub(rightAscension)).mul(DEGREES_TO_RADIANS);
+        DoubleVector sinHourAngle = sin(hourAngle);
+        DoubleVector cosHourAngle = cos(hourAngle);
+
+        DoubleVector sinAltitude = sinLatitude.mul(sinDeclination).add(cosLatitude.mul(cosDeclination).mul(cosHourAngle));
+        DoubleVector altitude = atan2(sinAltitude, sinAltitude.mul(sinAltitude).neg().add(1).max(0).sqrt());
+        altitude.mul(RADIANS_TO_DEGREES).intoArray(altitudeOut, offset);
+
+        DoubleVector azimuth = atan2(sinHourAngle.neg(),
+                cosLatitude.mul(sinDeclination).div(cosDeclination).sub(sinLatitude.mul(cosHourAngle))).mul(RADIANS_TO_DEGREES);
+        azimuth.add(360, azimuth.compare(VectorOperators.LT, 0)).intoArray(azimuthOut, offset);
+
+    }
+
+    // degrees - 360 * round(degrees / 360)
+    private static DoubleVector reduceDegrees(DoubleVector degrees) {
+
+        DoubleVector turns = degrees.mul(1.0 / 360).add(ROUNDING_MAGIC).sub(ROUNDING_MAGIC);
+        return degrees.sub(turns.mul(360));
+
+    }
+
+    static DoubleVector sin(DoubleVector x) {
+
+        DoubleVector shifted = x.mul(TWO_OVER_PI).add(ROUNDING_MAGIC);
+        LongVector quadrant = shifted.reinterpretAsLongs();
+        DoubleVector k = shifted.sub(ROUNDING_MAGIC);
+        DoubleVector r = x.sub(k.mul(HALF_PI_HIGH)).sub(k.mul(HALF_PI_LOW));
+
+        VectorMask<Double> odd = quadrant.and(1).compare(VectorOperators.NE, 0).cast(SPECIES);
+        VectorMask<Double> negate = quadrant.and(2).compare(VectorOperators.NE, 0).cast(SPECIES);
+        DoubleVector result = sinKernel(r).blend(cosKernel(r), odd);
+        return result.blend(result.neg(), negate);
+
+    }
+
+    static DoubleVector cos(DoubleVector x) {
+
+        DoubleVector shifted = x.mul(TWO_OVER_PI).add(ROUNDING_MAGIC);
+        LongVector quadrant = shifted.reinterpretAsLongs();
+        DoubleVector k = shifted.sub(ROUNDING_MAGIC);
+        DoubleVector r = x.sub(k.mul(HALF_PI_HIGH)).sub(k.mul(HALF_PI_LOW));
+
+        // cos(r + q pi/2): cos r, -sin r, -cos r, sin r
+        VectorMask<Double> odd = quadrant.and(1).compare(VectorOperators.NE, 0).cast(SPECIES);
+        VectorMask<Double> negate = quadrant.add(1).and(2).compare(VectorOperators.NE, 0).cast(SPECIES);
+        DoubleVector result = cosKernel(r).blend(sinKernel(r), odd);
+        return result.blend(result.neg(), negate);
+
+    }
+
+    static DoubleVector atan2(DoubleVector y, DoubleVector x) {
+
+        DoubleVector absX = x.abs();
+        DoubleVector absY = y.abs();
+        VectorMask<Double> steep = absY.compare(VectorOperators.GT, absX);
+        DoubleVector numerator = absX.min(absY);
+        DoubleVector denominator = absX.max(absY);
+        VectorMask<Double> origin = denominator.compare(VectorOperators.EQ, 0);
+        DoubleVector z = numerator.div(denominator.blend(1, origin)); // 0 / 1 at the origin
+
+        // Above tan(pi/12), atan(z) = pi/6 + atan((z sqrt3 - 1) / (z + sqrt3))
+        VectorMask<Double> shift = z.compare(VectorOperators.GT, TAN_PI_OVER_12);
+        DoubleVector reduced = z.blend(z.mul(SQRT_3).sub(1).div(z.add(SQRT_3)), shift);
+        DoubleVector result = atanKernel(reduced).add(DoubleVector.zero(SPECIES).blend(PI_OVER_6, shift));
+
+        result = result.blend(result.neg().add(HALF_PI), steep);
+        result = result.blend(result.neg().add(Math.PI), x.compare(VectorOperators.LT, 0));
+        return result.blend(result.neg(), y.compare(VectorOperators.LT, 0));
+
+    }
+
+    private static DoubleVector sinKernel(DoubleVector r) {
+
+        DoubleVector r2 = r.mul(r);
+        return r2.mul(1.0 / 362880).add(-1.0 / 5040).mul(r2).add(1.0 / 120).mul(r2).add(-1.0 / 6).mul(r2).add(1).mul(r);
+
+    }
+
+    private static DoubleVector cosKernel(DoubleVector r) {
+
+        DoubleVector r2 = r.mul(r);
+        return r2.mul(1.0 / 40320).add(-1.0 / 720).mul(r2).add(1.0 / 24).mul(r2).add(-0.5).mul(r2).add(1);
+
+    }
+
+    private static DoubleVector atanKernel(DoubleVector z) {
+
+        DoubleVector z2 = z.mul(z);
+        return z2.mul(-1.0 / 11).add(1.0 / 9).mul(z2).add(-1.0 / 7).mul(z2).add(1.0 / 5).mul(z2).add(-1.0 / 3).mul(z2).add(1).mul(z);
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.example.sundial.vector;
+
+import com.example.sundial.SolarCalculator;
+
+import jdk.incubator.vector.DoubleVector;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VectorSolarBatchTest {
+
+    private static final double MAX_ERROR_DEGREES = 0.01;
+
+    private static final long YEAR_2024 = 1704067200000L; // 2024-01-01 00:00 UTC
+
+    @Test
+    public void runsVectorizedWhenTheModuleIsPresent() {
+        assertTrue(VectorSolarBatch.isVectorized()); // the build adds jdk.incubator.vector to the test JVM
+    }
+
+    @Test
+    public void oneObserver_matchesTheScalarBatch() {
+        // An odd count, so the scalar tail runs too
+        long[] times = new long[366 * 24 + 3];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = YEAR_2024 + i * 3600000L + 1234;
+        }
+
+        double[] expectedAltitude = new double[times.length];
+        double[] expectedAzimuth = new double[times.length];
+        double[] altitude = new double[times.length];
+        double[] azimuth = new double[times.length];
+        for (double latitude = -90; latitude <= 90; latitude += 7.5) {
+            double longitude = latitude * 2 - 25;
+            SolarCalculator.calculateBatch(latitude, longitude, times, expectedAltitude, expectedAzimuth);
+            VectorSolarBatch.calculateBatch(latitude, longitude, times, altitude, azimuth);
+            assertClose(expectedAltitude, expectedAzimuth, altitude, azimuth);
+        }
+    }
+
+    @Test
+    public void observerPerInstant_matchesTheScalarBatch() {
+        int count = 10007;
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = -90 + (i * 37 % 1801) * 0.1;
+            longitudes[i] = -180 + (i * 53 % 3601) * 0.1;
+            times[i] = YEAR_2024 - 30L * 365 * 86400000L + i * 9_876_543_210L / 100;
+        }
+
+        double[] expectedAltitude = new double[count];
+        double[] expectedAzimuth = new double[count];
+        double[] altitude = new double[count];
+        double[] azimuth = new double[count];
+        SolarCalculator.calculateBatch(latitudes, longitudes, times, expectedAltitude, expectedAzimuth);
+        VectorSolarBatch.calculateBatch(latitudes, longitudes, times, altitude, azimuth);
+
+        assertClose(expectedAltitude, expectedAzimuth, altitude, azimuth);
+    }
+
+    @Test
+    public void trigKernels_matchTheLibrary() {
+        int lanes = DoubleVector.SPECIES_PREFERRED.length();
+        double[] x = new double[lanes];
+        double[] y = new double[lanes];
+        double[] out = new double[lanes];
+
+        for (double start = -1000; start < 1000; start += 0.0137 * lanes) {
+            for (int lane = 0; lane < lanes; lane++) {
+                x[lane] = start + lane * 0.0137;
+                y[lane] = Math.sin(x[lane] * 3.1) * (lane + 1);
+            }
+            DoubleVector xv = DoubleVector.fromArray(DoubleVector.SPECIES_PREFERRED, x, 0);
+            DoubleVector yv = DoubleVector.fromArray(DoubleVector.SPECIES_PREFERRED, y, 0);
+
+            VectorSolarKernel.sin(xv).intoArray(out, 0);
+            for (int lane = 0; lane < lanes; lane++) assertEquals(Math.sin(x[lane]), out[lane], 5e-8);
+            VectorSolarKernel.cos(xv).intoArray(out, 0);
+            for (int lane = 0; lane < lanes; lane++) assertEquals(Math.cos(x[lane]), out[lane], 5e-8);
+            VectorSolarKernel.atan2(yv, xv).intoArray(out, 0);
+            for (int lane = 0; lane < lanes; lane++) assertEquals(Math.atan2(y[lane], x[lane]), out[lane], 1e-8);
+        }
+    }
+
+    private static void assertClose(double[] expectedAltitude, double[] expectedAzimuth, double[] altitude, double[] azimuth) {
+        for (int i = 0; i < altitude.length; i++) {
+            assertEquals("altitude " + i, expectedAltitude[i], altitude[i], MAX_ERROR_DEGREES);
+            if (Math.abs(expectedAltitude[i]) < 89) { // azimuth is ill-conditioned at the zenith
+                double azimuthError = Math.abs(expectedAzimuth[i] - azimuth[i]);
+                assertEquals("azimuth " + i, 0, Math.min(azimuthError, 360 - azimuthError), MAX_ERROR_DEGREES);
+            }
+        }
+    }
+
+}